@@ -0,0 +1,38 @@
+package org.kerw1n.javautil.file;
+
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 写入 {@link ByteBuffer} 的输出流
+ * <p>
+ * 直接写入 buffer 并移动 position，不扩容，剩余空间不足时抛出 {@link BufferOverflowException}，支持堆外 buffer。非线程安全。
+ *
+ * @author kerw1n
+ */
+public class ByteBufferOutputStream extends OutputStream {
+
+    private final ByteBuffer buffer;
+
+    public ByteBufferOutputStream(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    public ByteBuffer getBuffer() {
+        return buffer;
+    }
+
+    @Override
+    public void write(int b) {
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        if (len > buffer.remaining()) {
+            throw new BufferOverflowException();
+        }
+        buffer.put(b, off, len);
+    }
+}
@@ -0,0 +1,130 @@
+package org.kerw1n.javautil.file;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * ByteBuffer 池
+ * <p>
+ * 按 2 的幂分级缓存 256B ~ 1MB 的 buffer，每级缓存数量有上限；超出范围的申请直接分配，归还时丢弃。
+ * 取出的 buffer 已 clear，字节序为 BIG_ENDIAN，容量不小于申请值；归还后不可再使用。线程安全。
+ *
+ * @author kerw1n
+ */
+public class ByteBufferPool {
+
+    private static final int MIN_SHIFT = 8;
+    private static final int MAX_SHIFT = 20;
+    /**
+     * 每级默认缓存数量
+     */
+    private static final int DEFAULT_MAX_PER_CLASS = 32;
+
+    private static final ByteBufferPool HEAP = new ByteBufferPool(false, DEFAULT_MAX_PER_CLASS);
+
+    private final boolean direct;
+    private final int maxPerClass;
+    private final Queue<ByteBuffer>[] queues;
+    private final AtomicIntegerArray counts;
+
+    /**
+     * @param direct      是否分配堆外 buffer
+     * @param maxPerClass 每级缓存数量上限
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public ByteBufferPool(boolean direct, int maxPerClass) {
+        this.direct = direct;
+        this.maxPerClass = maxPerClass;
+        this.queues = new Queue[MAX_SHIFT - MIN_SHIFT + 1];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.counts = new AtomicIntegerArray(queues.length);
+    }
+
+    /**
+     * 共享的堆内 buffer 池
+     *
+     * @return
+     */
+    public static ByteBufferPool heap() {
+        return HEAP;
+    }
+
+    /**
+     * 共享的堆外 buffer 池，首次使用时创建
+     *
+     * @return
+     */
+    public static ByteBufferPool direct() {
+        return DirectHolder.INSTANCE;
+    }
+
+    private static class DirectHolder {
+        static final ByteBufferPool INSTANCE = new ByteBufferPool(true, DEFAULT_MAX_PER_CLASS);
+    }
+
+    public boolean isDirect() {
+        return direct;
+    }
+
+    /**
+     * 取出容量不小于 minCapacity 的 buffer
+     *
+     * @param minCapacity 最小容量
+     * @return
+     */
+    public ByteBuffer acquire(int minCapacity) {
+        int index = indexOf(minCapacity);
+        if (index < 0) {
+            return allocate(minCapacity);
+        }
+        ByteBuffer buf = queues[index].poll();
+        if (buf == null) {
+            return allocate(1 << (index + MIN_SHIFT));
+        }
+        counts.decrementAndGet(index);
+        buf.clear();
+        buf.order(ByteOrder.BIG_ENDIAN);
+        return buf;
+    }
+
+    /**
+     * 归还 buffer，不属于本池规格的 buffer 直接丢弃
+     *
+     * @param buf
+     */
+    public void release(ByteBuffer buf) {
+        if (buf == null || buf.isDirect() != direct || buf.isReadOnly()) {
+            return;
+        }
+        int capacity = buf.capacity();
+        int index = indexOf(capacity);
+        if (index < 0 || 1 << (index + MIN_SHIFT) != capacity) {
+            return;
+        }
+        if (counts.incrementAndGet(index) > maxPerClass) {
+            counts.decrementAndGet(index);
+            return;
+        }
+        queues[index].offer(buf);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    /**
+     * 容量所在级别，超出范围返回 -1
+     */
+    private static int indexOf(int capacity) {
+        if (capacity > 1 << MAX_SHIFT) {
+            return -1;
+        }
+        int shift = capacity <= 1 << MIN_SHIFT ? MIN_SHIFT : 32 - Integer.numberOfLeadingZeros(capacity - 1);
+        return shift - MIN_SHIFT;
+    }
+}
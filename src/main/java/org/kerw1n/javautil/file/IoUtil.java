@@ -7,6 +7,15 @@ import org.springframework.util.Assert;
 
 import javax.servlet.http.HttpServletResponse;
 import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * IO 操作工具类
@@ -15,6 +24,11 @@ import java.io.*;
  */
 public class IoUtil {
 
+    /**
+     * 单次 transferFrom 的最大字节数
+     */
+    private static final long TRANSFER_CHUNK = 1 << 20;
+
     private IoUtil() {
     }
 
@@ -52,6 +66,47 @@ public class IoUtil {
         }
     }
 
+    /**
+     * 将通道中的数据写入文件，通过 {@link FileChannel#transferFrom} 分段传输，不在堆上缓存全部内容
+     * <p>
+     * 先写入同目录下的临时文件，完成后原子替换目标文件；写入失败时只删除临时文件，已存在的目标文件保持不变。
+     *
+     * @param src    数据来源，读取至末尾，不关闭
+     * @param target 目标文件，已存在时覆盖；不能是目录
+     * @return 写入的字节数
+     * @throws IOException
+     */
+    public static long transferTo(ReadableByteChannel src, Path target) throws IOException {
+        if (Files.isDirectory(target)) {
+            throw new FileSystemException(target.toString(), null, "Is a directory");
+        }
+        Path temp = target.resolveSibling("." + target.getFileName() + "."
+                + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+        // CREATE_NEW 失败时临时文件不属于本次调用，不进入下方的清理
+        FileChannel file = FileChannel.open(temp, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        boolean moved = false;
+        try {
+            long position = 0;
+            try (FileChannel out = file) {
+                long n;
+                while ((n = out.transferFrom(src, position, TRANSFER_CHUNK)) > 0) {
+                    position += n;
+                }
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            moved = true;
+            return position;
+        } finally {
+            if (!moved) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
     public static void serverResponse(HttpServletResponse response, String json) throws IOException {
         serverResponse(response, HttpStatus.OK.value(), json);
     }
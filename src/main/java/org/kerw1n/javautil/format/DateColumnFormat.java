@@ -0,0 +1,438 @@
+package org.kerw1n.javautil.format;
+
+import java.text.ParseException;
+import java.time.ZoneId;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 日期列的批量格式化与解析.
+ * <p>
+ * 按列处理毫秒数数组，用于导出等场景。定宽格式（见 {@link FixedDateFormat}）使用独立的实例，连续同一天的数据只计算时分秒，
+ * 有序或按天聚集的数据效果最好；相邻的相同值直接复用上一个结果。
+ * 数据量较大时可使用 parallel 系列方法，按段拆分到 {@link ForkJoinPool#commonPool()} 中执行，每段使用各自的缓存。
+ * <p>
+ * 实例线程安全，按列或按导出任务复用即可。
+ *
+ * @author : kerw1n
+ **/
+public class DateColumnFormat {
+
+    /**
+     * 并行时每段的最小长度
+     */
+    private static final int MIN_CHUNK = 1 << 13;
+
+    private final String pattern;
+    private final ZoneId zone;
+    /**
+     * 定宽格式的实例，不支持时为 null
+     */
+    private final FixedDateFormat fixed;
+
+    /**
+     * 使用系统默认时区
+     *
+     * @param pattern 日期格式
+     */
+    public DateColumnFormat(String pattern) {
+        this(pattern, ZoneId.systemDefault());
+    }
+
+    /**
+     * @param pattern 日期格式
+     * @param zone    时区
+     */
+    public DateColumnFormat(String pattern, ZoneId zone) {
+        this.pattern = pattern;
+        this.zone = zone;
+        this.fixed = FixedDateFormat.newInstance(pattern, zone);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 是否为定宽格式，定宽格式才支持 char[] 的读写
+     *
+     * @return
+     */
+    public boolean isFixedWidth() {
+        return fixed != null;
+    }
+
+    /**
+     * 定宽格式每个值的字符数，年份为 4 位时
+     *
+     * @return
+     * @throws IllegalStateException 非定宽格式
+     */
+    public int width() {
+        return requireFixed().length();
+    }
+
+    /**
+     * 定宽格式每个值的最大字符数，年份超过 9999 时多于 {@link #width()}
+     *
+     * @return
+     * @throws IllegalStateException 非定宽格式
+     */
+    public int maxWidth() {
+        return requireFixed().maxLength();
+    }
+
+    /**
+     * 毫秒数数组格式化为字符串数组
+     *
+     * @param values 毫秒数
+     * @return
+     */
+    public String[] format(long[] values) {
+        String[] dest = new String[values.length];
+        format(values, 0, values.length, dest, 0);
+        return dest;
+    }
+
+    /**
+     * 毫秒数数组格式化后写入字符串数组
+     *
+     * @param values  毫秒数
+     * @param from    起始位置（包含）
+     * @param to      结束位置（不包含）
+     * @param dest    目标数组
+     * @param destOff 写入位置
+     */
+    public void format(long[] values, int from, int to, String[] dest, int destOff) {
+        checkRange(values.length, from, to);
+        checkRange(dest.length, destOff, destOff + (to - from));
+        formatRange(fixed, values, from, to, dest, destOff);
+    }
+
+    /**
+     * 定宽格式下，毫秒数数组格式化后依次写入字符数组，不含分隔符
+     *
+     * @param values 毫秒数
+     * @param from   起始位置（包含）
+     * @param to     结束位置（不包含）
+     * @param buf    目标数组，剩余空间不小于 (to - from) * {@link #maxWidth()}；年份均不超过 9999 时只需 (to - from) * {@link #width()}
+     * @param off    写入位置
+     * @return 写入的字符数，年份超过 9999 的值按实际长度写入，此时大于 (to - from) * {@link #width()}
+     * @throws IllegalStateException     非定宽格式
+     * @throws IndexOutOfBoundsException 剩余空间不足
+     */
+    public int formatTo(long[] values, int from, int to, char[] buf, int off) {
+        int width = width();
+        checkRange(values.length, from, to);
+        checkRange(buf.length, off, off + (to - from) * width);
+        return formatRange(fixed, values, from, to, buf, off) - off;
+    }
+
+    /**
+     * 毫秒数数组格式化后追加到 StringBuilder，值之间以分隔符隔开
+     *
+     * @param values    毫秒数
+     * @param from      起始位置（包含）
+     * @param to        结束位置（不包含）
+     * @param sb        目标，可清空后复用
+     * @param delimiter 分隔符
+     * @return sb
+     */
+    public StringBuilder formatTo(long[] values, int from, int to, StringBuilder sb, char delimiter) {
+        checkRange(values.length, from, to);
+        if (fixed != null) {
+            char[] chars = new char[fixed.maxLength()];
+            for (int i = from; i < to; i++) {
+                if (i > from) {
+                    sb.append(delimiter);
+                }
+                sb.append(chars, 0, fixed.formatTo(values[i], chars, 0));
+            }
+            return sb;
+        }
+        for (int i = from; i < to; i++) {
+            if (i > from) {
+                sb.append(delimiter);
+            }
+            sb.append(DateTimeFormatterFactory.format(values[i], pattern, zone));
+        }
+        return sb;
+    }
+
+    /**
+     * 并行格式化为字符串数组
+     *
+     * @param values 毫秒数
+     * @return
+     */
+    public String[] parallelFormat(long[] values) {
+        String[] dest = new String[values.length];
+        if (values.length <= MIN_CHUNK) {
+            formatRange(fixed, values, 0, values.length, dest, 0);
+        } else {
+            ForkJoinPool.commonPool().invoke(new FormatTask(values, 0, values.length, dest, null, 0));
+        }
+        return dest;
+    }
+
+    /**
+     * 定宽格式下并行格式化，依次写入字符数组
+     * <p>
+     * 各段按 {@link #width()} 计算写入位置，存在年份超过 9999 的值时退回到 {@link #formatTo(long[], int, int, char[], int)}.
+     *
+     * @param values 毫秒数
+     * @param buf    目标数组，剩余空间要求同 {@link #formatTo(long[], int, int, char[], int)}
+     * @param off    写入位置
+     * @return 写入的字符数
+     * @throws IllegalStateException     非定宽格式
+     * @throws IndexOutOfBoundsException 剩余空间不足
+     */
+    public int parallelFormatTo(long[] values, char[] buf, int off) {
+        int width = width();
+        checkRange(buf.length, off, off + values.length * width);
+        if (values.length <= MIN_CHUNK || !allFixedLength(values)) {
+            return formatRange(fixed, values, 0, values.length, buf, off) - off;
+        }
+        ForkJoinPool.commonPool().invoke(new FormatTask(values, 0, values.length, null, buf, off));
+        return values.length * width;
+    }
+
+    /**
+     * 字符串数组解析为毫秒数数组
+     *
+     * @param texts 日期字符串
+     * @return 毫秒数
+     * @throws ParseException 日期解析异常，信息中包含所在位置
+     */
+    public long[] parse(CharSequence[] texts) throws ParseException {
+        long[] dest = new long[texts.length];
+        parse(texts, 0, texts.length, dest, 0);
+        return dest;
+    }
+
+    /**
+     * 字符串数组解析后写入毫秒数数组
+     *
+     * @param texts   日期字符串
+     * @param from    起始位置（包含）
+     * @param to      结束位置（不包含）
+     * @param dest    目标数组
+     * @param destOff 写入位置
+     * @throws ParseException 日期解析异常，信息中包含所在位置
+     */
+    public void parse(CharSequence[] texts, int from, int to, long[] dest, int destOff) throws ParseException {
+        checkRange(texts.length, from, to);
+        checkRange(dest.length, destOff, destOff + (to - from));
+        parseRange(fixed, texts, from, to, dest, destOff);
+    }
+
+    /**
+     * 定宽格式下，解析字符数组中依次排列、不含分隔符的日期
+     *
+     * @param buf     字符数组
+     * @param off     起始位置
+     * @param count   日期个数
+     * @param dest    目标数组
+     * @param destOff 写入位置
+     * @throws ParseException 日期解析异常，信息中包含所在位置
+     * @throws IllegalStateException 非定宽格式
+     */
+    public void parse(char[] buf, int off, int count, long[] dest, int destOff) throws ParseException {
+        int width = width();
+        checkRange(buf.length, off, off + count * width);
+        checkRange(dest.length, destOff, destOff + count);
+        for (int i = 0; i < count; i++) {
+            try {
+                dest[destOff + i] = fixed.parse(buf, off + i * width, width);
+            } catch (ParseException e) {
+                throw withIndex(e, i);
+            }
+        }
+    }
+
+    /**
+     * 并行解析字符串数组
+     *
+     * @param texts 日期字符串
+     * @return 毫秒数
+     * @throws ParseException 日期解析异常，信息中包含所在位置
+     */
+    public long[] parallelParse(CharSequence[] texts) throws ParseException {
+        long[] dest = new long[texts.length];
+        if (texts.length <= MIN_CHUNK) {
+            parseRange(fixed, texts, 0, texts.length, dest, 0);
+            return dest;
+        }
+        try {
+            ForkJoinPool.commonPool().invoke(new ParseTask(texts, 0, texts.length, dest));
+        } catch (RuntimeException e) {
+            // ForkJoin 会重新包装异常，沿异常链找到原始的解析异常
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof ParseException) {
+                    throw (ParseException) cause;
+                }
+            }
+            throw e;
+        }
+        return dest;
+    }
+
+    /**
+     * 并行时每段使用独立的定宽实例，避免多线程争用同一天的缓存
+     */
+    private FixedDateFormat fixedForChunk() {
+        return fixed != null ? FixedDateFormat.newInstance(pattern, zone) : null;
+    }
+
+    private FixedDateFormat requireFixed() {
+        if (fixed == null) {
+            throw new IllegalStateException("Not a fixed-width pattern: " + pattern);
+        }
+        return fixed;
+    }
+
+    private boolean allFixedLength(long[] values) {
+        for (long value : values) {
+            if (!fixed.isFixedLength(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void formatRange(FixedDateFormat format, long[] values, int from, int to, String[] dest, int destOff) {
+        for (int i = from, j = destOff; i < to; i++, j++) {
+            long value = values[i];
+            if (i > from && value == values[i - 1]) {
+                dest[j] = dest[j - 1];
+            } else if (format != null) {
+                dest[j] = format.format(value);
+            } else {
+                dest[j] = DateTimeFormatterFactory.format(value, pattern, zone);
+            }
+        }
+    }
+
+    /**
+     * 按每个值实际写入的长度前进
+     *
+     * @return 写入结束的位置
+     */
+    private static int formatRange(FixedDateFormat format, long[] values, int from, int to, char[] buf, int off) {
+        int pos = off;
+        int len = 0;
+        for (int i = from; i < to; i++) {
+            if (i > from && values[i] == values[i - 1]) {
+                System.arraycopy(buf, pos - len, buf, pos, len);
+            } else {
+                len = format.formatTo(values[i], buf, pos);
+            }
+            pos += len;
+        }
+        return pos;
+    }
+
+    private void parseRange(FixedDateFormat format, CharSequence[] texts, int from, int to, long[] dest, int destOff)
+            throws ParseException {
+        for (int i = from, j = destOff; i < to; i++, j++) {
+            CharSequence text = texts[i];
+            if (i > from && text == texts[i - 1]) {
+                dest[j] = dest[j - 1];
+                continue;
+            }
+            try {
+                dest[j] = format != null ? format.parse(text) : DateTimeFormatterFactory.parse(text, pattern, zone);
+            } catch (ParseException e) {
+                throw withIndex(e, i);
+            }
+        }
+    }
+
+    private static ParseException withIndex(ParseException e, int index) {
+        ParseException pe = new ParseException(e.getMessage() + " (index " + index + ")", e.getErrorOffset());
+        pe.initCause(e);
+        return pe;
+    }
+
+    private static void checkRange(int length, int from, int to) {
+        if (from < 0 || from > to || to > length) {
+            throw new IndexOutOfBoundsException("from: " + from + ", to: " + to + ", length: " + length);
+        }
+    }
+
+    /**
+     * 并行格式化任务，目标为字符串数组或定宽字符数组
+     */
+    private class FormatTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final long[] values;
+        final int from;
+        final int to;
+        final String[] strings;
+        final char[] chars;
+        final int off;
+
+        FormatTask(long[] values, int from, int to, String[] strings, char[] chars, int off) {
+            this.values = values;
+            this.from = from;
+            this.to = to;
+            this.strings = strings;
+            this.chars = chars;
+            this.off = off;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_CHUNK) {
+                FixedDateFormat format = fixedForChunk();
+                if (strings != null) {
+                    formatRange(format, values, from, to, strings, from);
+                } else {
+                    formatRange(format, values, from, to, chars, off + from * format.length());
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new FormatTask(values, from, mid, strings, chars, off),
+                    new FormatTask(values, mid, to, strings, chars, off));
+        }
+    }
+
+    /**
+     * 并行解析任务
+     */
+    private class ParseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        final CharSequence[] texts;
+        final int from;
+        final int to;
+        final long[] dest;
+
+        ParseTask(CharSequence[] texts, int from, int to, long[] dest) {
+            this.texts = texts;
+            this.from = from;
+            this.to = to;
+            this.dest = dest;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= MIN_CHUNK) {
+                try {
+                    parseRange(fixedForChunk(), texts, from, to, dest, from);
+                } catch (ParseException e) {
+                    throw new IllegalArgumentException(e.getMessage(), e);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ParseTask(texts, from, mid, dest), new ParseTask(texts, mid, to, dest));
+        }
+    }
+}
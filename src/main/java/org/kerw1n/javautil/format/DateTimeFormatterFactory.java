@@ -0,0 +1,590 @@
+package org.kerw1n.javautil.format;
+
+import java.text.DateFormatSymbols;
+import java.text.DecimalFormatSymbols;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DecimalStyle;
+import java.time.format.ResolverStyle;
+import java.time.format.SignStyle;
+import java.time.temporal.ChronoField;
+import java.time.temporal.TemporalAccessor;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * DateTimeFormatter 工厂.
+ * <p>
+ * {@link DateTimeFormatter} 不可变且线程安全，按格式缓存后所有线程共享，不依赖 ThreadLocal。
+ * 缓存数量有上限，超出后淘汰任意一个已有格式。
+ * 格式按 {@link java.text.SimpleDateFormat} 的语法转换，格式化结果与其保持一致：y 按纪年年份输出、超过 4 位时不加符号，S 按毫秒数输出，
+ * 文本字段取自 {@link java.text.DateFormatSymbols}，引号外的 [ ] # { } 等符号均为字面量；
+ * 含无法等价转换的字母（z、Z、X、w、W、Y、L 等）的格式，以及默认区域使用非格里高利历时，使用 SimpleDateFormat 处理；
+ * 格里高利历切换（1582-10-15）之前的日期按儒略历，早期时段（1900 年后时区第一次偏移变化之前）的偏移量也可能与 java.time 不同，这两段交给 SimpleDateFormat 处理。
+ * 解析即 SimpleDateFormat 的语义（宽松解析、数字位数可变、跳过前导空白、两位年份按当前时间前 80 年起算等），
+ * 定宽的常用格式由 {@link FixedDateFormat} 直接处理；只含年月日时分秒毫秒数字字段的格式由缓存的解析器读取字段后按相同规则计算，
+ * 遇到其无法确定结果的输入（多余空白、夏令时切换的间隙或重叠、早期日期等），以及其余格式，使用缓存的 SimpleDateFormat：
+ * 每个格式保留一个空闲实例，取用时不复制，并发取用时复制原型。
+ * 未指定时区的方法使用类加载时的系统默认时区，与原先按线程缓存的 SimpleDateFormat 一样不随 {@link TimeZone#setDefault} 变化。
+ *
+ * @author : kerw1n
+ **/
+public class DateTimeFormatterFactory {
+
+    /**
+     * 缓存的格式数量上限
+     */
+    private static final int MAX_SIZE = 256;
+    /**
+     * 格里高利历切换时刻 1582-10-15T00:00:00Z，SimpleDateFormat 在此之前使用儒略历
+     */
+    private static final long GREGORIAN_CUTOVER = -12219292800000L;
+    private static final int GREGORIAN_CUTOVER_YEAR = 1582;
+    /**
+     * 1900-01-01T00:00:00Z 的秒数
+     */
+    private static final long UTC_1900 = -2208988800L;
+    private static final long DAY_MILLIS = DateUtil.DAY_SECONDS * DateUtil.SECONDS_MILLS;
+    /**
+     * 快速解析失败标记
+     */
+    private static final long INVALID = Long.MIN_VALUE;
+
+    /**
+     * 系统默认时区，类加载时确定
+     */
+    static final ZoneId DEFAULT_ZONE = ZoneId.systemDefault();
+
+    /**
+     * 无法等价转换的格式的缓存标记
+     */
+    private static final DateTimeFormatter UNSUPPORTED = DateTimeFormatter.ISO_INSTANT;
+
+    private static final ConcurrentMap<String, DateTimeFormatter> FORMATTER_MAP = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, DateTimeFormatter> PARSER_MAP = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<ZoneId, TimeZone> TIME_ZONE_MAP = new ConcurrentHashMap<>();
+    /**
+     * 各时区交给 SimpleDateFormat 处理的时刻上限
+     */
+    private static final ConcurrentMap<ZoneId, Long> LEGACY_BEFORE_MAP = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, LegacyFormat> LEGACY_MAP = new ConcurrentHashMap<>();
+    /**
+     * 各区域是否使用格里高利历与 ASCII 数字
+     */
+    private static final ConcurrentMap<Locale, Boolean> ASCII_GREGORIAN_MAP = new ConcurrentHashMap<>();
+
+    private DateTimeFormatterFactory() {
+    }
+
+    public static DateTimeFormatter getInstance() {
+        return getInstance(DateUtil.Format.FORMAT_03);
+    }
+
+    /**
+     * 获取与 {@link SimpleDateFormat} 输出一致的 DateTimeFormatter
+     *
+     * @param format 格式
+     * @return
+     * @throws IllegalArgumentException 格式含无法等价转换的字母时抛出，此时应使用 {@link #format(long, String)}、{@link #parse(CharSequence, String)}
+     */
+    public static DateTimeFormatter getInstance(String format) {
+        DateTimeFormatter formatter = formatter(format);
+        if (formatter == null) {
+            throw new IllegalArgumentException("Pattern has no DateTimeFormatter equivalent: " + format);
+        }
+        return formatter;
+    }
+
+    /**
+     * 缓存的格式化器，无法等价转换时返回 null
+     */
+    private static DateTimeFormatter formatter(String format) {
+        DateTimeFormatter formatter = FORMATTER_MAP.get(format);
+        if (formatter == null) {
+            evictIfFull(FORMATTER_MAP);
+            formatter = FORMATTER_MAP.computeIfAbsent(format, DateTimeFormatterFactory::create);
+        }
+        return formatter != UNSUPPORTED ? formatter : null;
+    }
+
+    /**
+     * 毫秒数格式化为字符串，使用系统默认时区
+     *
+     * @param epochMilli 毫秒数
+     * @param format     格式
+     * @return
+     */
+    public static String format(long epochMilli, String format) {
+        FixedDateFormat fixed = FixedDateFormat.getInstance(format);
+        return fixed != null ? fixed.format(epochMilli) : format(epochMilli, format, DEFAULT_ZONE);
+    }
+
+    /**
+     * 毫秒数格式化为字符串，通用实现
+     *
+     * @param epochMilli 毫秒数
+     * @param format     格式
+     * @param zone       时区
+     * @return
+     */
+    static String format(long epochMilli, String format, ZoneId zone) {
+        DateTimeFormatter formatter = formatter(format);
+        if (formatter == null || epochMilli < legacyBefore(zone)) {
+            LegacyFormat legacy = legacy(format);
+            SimpleDateFormat sdf = legacy.acquire(zone);
+            try {
+                return sdf.format(new Date(epochMilli));
+            } finally {
+                legacy.release(sdf);
+            }
+        }
+        return formatter.format(Instant.ofEpochMilli(epochMilli).atZone(zone));
+    }
+
+    /**
+     * 字符串解析为毫秒数，使用系统默认时区
+     *
+     * @param text   日期字符串
+     * @param format 格式
+     * @return 毫秒数
+     * @throws ParseException 日期解析异常
+     */
+    public static long parse(CharSequence text, String format) throws ParseException {
+        FixedDateFormat fixed = FixedDateFormat.getInstance(format);
+        return fixed != null ? fixed.parse(text) : parse(text, format, DEFAULT_ZONE);
+    }
+
+    /**
+     * 字符串解析为毫秒数，通用实现，与 {@link SimpleDateFormat#parse(String)} 一致
+     *
+     * @param text   日期字符串
+     * @param format 格式
+     * @param zone   未解析出时区时使用的时区
+     * @return 毫秒数
+     * @throws ParseException 日期解析异常
+     */
+    static long parse(CharSequence text, String format, ZoneId zone) throws ParseException {
+        DateTimeFormatter parser = parser(format);
+        long millis = parser != null ? parseFields(parser, text, zone) : INVALID;
+        if (millis != INVALID) {
+            return millis;
+        }
+        LegacyFormat legacy = legacy(format);
+        SimpleDateFormat sdf = legacy.acquire(zone);
+        try {
+            return sdf.parse(text.toString()).getTime();
+        } finally {
+            legacy.release(sdf);
+        }
+    }
+
+    /**
+     * 缓存的解析器，格式不支持快速解析时返回 null
+     */
+    private static DateTimeFormatter parser(String format) {
+        DateTimeFormatter parser = PARSER_MAP.get(format);
+        if (parser == null) {
+            evictIfFull(PARSER_MAP);
+            parser = PARSER_MAP.computeIfAbsent(format, DateTimeFormatterFactory::createParser);
+        }
+        return parser != UNSUPPORTED ? parser : null;
+    }
+
+    /**
+     * 读取各字段后按 SimpleDateFormat 宽松解析的规则计算：缺省字段取 1970-01-01 00:00:00.000，越界的值向上进位。
+     * 匹配后紧跟数字（SimpleDateFormat 会继续读取）、年份不晚于格里高利历切换（{@link java.util.GregorianCalendar} 按原始年份选择历法，
+     * 越界的月、日可使儒略历的日期进位到切换之后）、本地时间落在偏移变化的间隙或重叠中、结果早于 {@link #legacyBefore}
+     * 或超出范围时返回 {@link #INVALID}，交给 SimpleDateFormat 处理
+     */
+    private static long parseFields(DateTimeFormatter parser, CharSequence text, ZoneId zone) {
+        ParsePosition position = new ParsePosition(0);
+        TemporalAccessor parsed = parser.parseUnresolved(text, position);
+        int end = position.getIndex();
+        if (parsed == null || (end < text.length() && Character.isDigit(text.charAt(end)))) {
+            return INVALID;
+        }
+        long year = getLong(parsed, ChronoField.YEAR_OF_ERA, 1970);
+        if (year <= GREGORIAN_CUTOVER_YEAR) {
+            return INVALID;
+        }
+        try {
+            long millisOfDay = ((getLong(parsed, ChronoField.HOUR_OF_DAY, 0) * 60
+                    + getLong(parsed, ChronoField.MINUTE_OF_HOUR, 0)) * 60
+                    + getLong(parsed, ChronoField.SECOND_OF_MINUTE, 0)) * 1000
+                    + getLong(parsed, ChronoField.MILLI_OF_SECOND, 0);
+            LocalDateTime local = LocalDate.of((int) year, 1, 1)
+                    .plusMonths(getLong(parsed, ChronoField.MONTH_OF_YEAR, 1) - 1)
+                    .plusDays(getLong(parsed, ChronoField.DAY_OF_MONTH, 1) - 1 + millisOfDay / DAY_MILLIS)
+                    .atTime(LocalTime.ofNanoOfDay(millisOfDay % DAY_MILLIS * 1000_000L));
+            List<ZoneOffset> offsets = zone.getRules().getValidOffsets(local);
+            if (offsets.size() != 1) {
+                return INVALID;
+            }
+            long millis = Math.addExact(Math.multiplyExact(local.toEpochSecond(offsets.get(0)), 1000L), millisOfDay % 1000);
+            return millis >= legacyBefore(zone) ? millis : INVALID;
+        } catch (DateTimeException | ArithmeticException e) {
+            return INVALID;
+        }
+    }
+
+    private static long getLong(TemporalAccessor parsed, ChronoField field, long defaultValue) {
+        return parsed.isSupported(field) ? parsed.getLong(field) : defaultValue;
+    }
+
+    /**
+     * 早于该毫秒数的时刻需按 SimpleDateFormat 处理：格里高利历切换之前，或 {@link TimeZone} 与 java.time 偏移量可能不同的早期时段
+     *
+     * @param zone 时区
+     * @return 毫秒数
+     */
+    static long legacyBefore(ZoneId zone) {
+        Long before = LEGACY_BEFORE_MAP.get(zone);
+        if (before == null) {
+            evictIfFull(LEGACY_BEFORE_MAP);
+            before = LEGACY_BEFORE_MAP.computeIfAbsent(zone, DateTimeFormatterFactory::computeLegacyBefore);
+        }
+        return before;
+    }
+
+    /**
+     * {@link TimeZone} 丢弃 1900 年之前的偏移变化，1900 年后第一次偏移变化之前的偏移量与 java.time 不一定相同
+     */
+    private static long computeLegacyBefore(ZoneId zone) {
+        long before = GREGORIAN_CUTOVER / 1000L;
+        for (ZoneOffsetTransition transition : zone.getRules().getTransitions()) {
+            before = transition.toEpochSecond();
+            if (before >= UTC_1900) {
+                break;
+            }
+        }
+        return Math.max(GREGORIAN_CUTOVER, before * 1000L);
+    }
+
+    private static LegacyFormat legacy(String format) {
+        LegacyFormat legacy = LEGACY_MAP.get(format);
+        if (legacy == null) {
+            evictIfFull(LEGACY_MAP);
+            legacy = LEGACY_MAP.computeIfAbsent(format, LegacyFormat::new);
+        }
+        return legacy;
+    }
+
+    /**
+     * 默认格式化区域是否使用格里高利历与 ASCII 数字，如泰国佛历（th_TH）、日本和历（ja_JP_JP）、
+     * 阿拉伯文数字（ar、fa）的区域中 SimpleDateFormat 按本地历法或数字输出，{@link FixedDateFormat} 不适用
+     */
+    static boolean isAsciiGregorian() {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        Boolean ascii = ASCII_GREGORIAN_MAP.get(locale);
+        if (ascii == null) {
+            evictIfFull(ASCII_GREGORIAN_MAP);
+            ascii = ASCII_GREGORIAN_MAP.computeIfAbsent(locale, l -> "gregory".equals(Calendar.getInstance(l).getCalendarType())
+                    && DecimalFormatSymbols.getInstance(l).getZeroDigit() == '0');
+        }
+        return ascii;
+    }
+
+    /**
+     * 缓存的 TimeZone，只读共享，不要修改
+     */
+    private static TimeZone timeZone(ZoneId zone) {
+        TimeZone timeZone = TIME_ZONE_MAP.get(zone);
+        if (timeZone == null) {
+            evictIfFull(TIME_ZONE_MAP);
+            timeZone = TIME_ZONE_MAP.computeIfAbsent(zone, TimeZone::getTimeZone);
+        }
+        return timeZone;
+    }
+
+    /**
+     * 按 SimpleDateFormat 的语法逐个转换字母，数字字段按最少位数补零，文本字段取自 {@link DateFormatSymbols}，
+     * 引号外的非字母字符均为字面量；含无法等价转换的字母（z、Z、X、w、W、Y、L 等）、引号未闭合，
+     * 或默认区域的日历不是格里高利历（如 th_TH、ja_JP_JP）时返回 {@link #UNSUPPORTED}
+     */
+    private static DateTimeFormatter create(String format) {
+        return build(format, false);
+    }
+
+    /**
+     * 只含 y（3 位及以上）、M（1~2 位）、d、H、m、s、S 且各出现一次的格式，按 SimpleDateFormat 读取数字的方式构建：
+     * 紧跟另一字段的字段按字母个数定宽，其余为 1~9 位；字面量不能含数字，也不能以指数符号开头（会被当作数字的一部分读取）。
+     * 其余格式返回 {@link #UNSUPPORTED}
+     */
+    private static DateTimeFormatter createParser(String format) {
+        return build(format, true);
+    }
+
+    private static DateTimeFormatter build(String format, boolean parse) {
+        Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        if (!"gregory".equals(Calendar.getInstance(locale).getCalendarType())) {
+            return UNSUPPORTED;
+        }
+        DateFormatSymbols symbols = DateFormatSymbols.getInstance(locale);
+        String exponent = DecimalFormatSymbols.getInstance(locale).getExponentSeparator();
+        DateTimeFormatterBuilder builder = new DateTimeFormatterBuilder();
+        StringBuilder fields = new StringBuilder();
+        int length = format.length();
+        for (int i = 0; i < length; ) {
+            char c = format.charAt(i);
+            if (c == '\'' || !isLetter(c)) {
+                StringBuilder literal = new StringBuilder();
+                if (c == '\'') {
+                    i = readQuoted(format, i, literal);
+                    if (i < 0) {
+                        return UNSUPPORTED;
+                    }
+                } else {
+                    literal.append(c);
+                    i++;
+                }
+                if (parse && !isParsableLiteral(literal, exponent)) {
+                    return UNSUPPORTED;
+                }
+                builder.appendLiteral(literal.toString());
+                continue;
+            }
+            int end = i;
+            while (end < length && format.charAt(end) == c) {
+                end++;
+            }
+            boolean appended;
+            if (parse) {
+                boolean abutting = end < length && isLetter(format.charAt(end));
+                appended = fields.indexOf(String.valueOf(c)) < 0 && appendParseField(builder, c, end - i, abutting);
+                fields.append(c);
+            } else {
+                appended = appendField(builder, c, end - i, symbols);
+            }
+            if (!appended) {
+                return UNSUPPORTED;
+            }
+            i = end;
+        }
+        if (parse) {
+            return builder.toFormatter(locale);
+        }
+        return builder.toFormatter(locale).withDecimalStyle(DecimalStyle.of(locale)).withResolverStyle(ResolverStyle.LENIENT);
+    }
+
+    private static boolean isParsableLiteral(CharSequence literal, String exponent) {
+        for (int i = 0; i < literal.length(); i++) {
+            if (Character.isDigit(literal.charAt(i))) {
+                return false;
+            }
+        }
+        return exponent.isEmpty() || !literal.toString().startsWith(exponent.substring(0, 1));
+    }
+
+    /**
+     * 读取引号内的字面量，'' 表示单引号本身
+     *
+     * @return 引号之后的位置，引号未闭合时返回 -1
+     */
+    private static int readQuoted(String format, int i, StringBuilder literal) {
+        int length = format.length();
+        if (i + 1 < length && format.charAt(i + 1) == '\'') {
+            literal.append('\'');
+            return i + 2;
+        }
+        for (i++; i < length; i++) {
+            char c = format.charAt(i);
+            if (c != '\'') {
+                literal.append(c);
+            } else if (i + 1 < length && format.charAt(i + 1) == '\'') {
+                literal.append('\'');
+                i++;
+            } else {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    /**
+     * 追加与 SimpleDateFormat 输出一致的字段
+     *
+     * @return 该字母无法等价转换时返回 false
+     */
+    private static boolean appendField(DateTimeFormatterBuilder builder, char c, int count, DateFormatSymbols symbols) {
+        switch (c) {
+            case 'G':
+                builder.appendText(ChronoField.ERA, textMap(symbols.getEras(), 0));
+                return true;
+            case 'y':
+                if (count == 2) {
+                    // 两位年份取纪年年份的末两位
+                    builder.appendValueReduced(ChronoField.YEAR_OF_ERA, 2, 2, 2000);
+                    return true;
+                }
+                return appendNumber(builder, ChronoField.YEAR_OF_ERA, count);
+            case 'M':
+                if (count >= 3) {
+                    builder.appendText(ChronoField.MONTH_OF_YEAR,
+                            textMap(count >= 4 ? symbols.getMonths() : symbols.getShortMonths(), 1));
+                    return true;
+                }
+                return appendNumber(builder, ChronoField.MONTH_OF_YEAR, count);
+            case 'E':
+                builder.appendText(ChronoField.DAY_OF_WEEK, weekdayMap(count >= 4 ? symbols.getWeekdays() : symbols.getShortWeekdays()));
+                return true;
+            case 'a':
+                builder.appendText(ChronoField.AMPM_OF_DAY, textMap(symbols.getAmPmStrings(), 0));
+                return true;
+            case 'd':
+                return appendNumber(builder, ChronoField.DAY_OF_MONTH, count);
+            case 'D':
+                return appendNumber(builder, ChronoField.DAY_OF_YEAR, count);
+            case 'F':
+                return appendNumber(builder, ChronoField.ALIGNED_WEEK_OF_MONTH, count);
+            case 'u':
+                return appendNumber(builder, ChronoField.DAY_OF_WEEK, count);
+            case 'H':
+                return appendNumber(builder, ChronoField.HOUR_OF_DAY, count);
+            case 'k':
+                return appendNumber(builder, ChronoField.CLOCK_HOUR_OF_DAY, count);
+            case 'K':
+                return appendNumber(builder, ChronoField.HOUR_OF_AMPM, count);
+            case 'h':
+                return appendNumber(builder, ChronoField.CLOCK_HOUR_OF_AMPM, count);
+            case 'm':
+                return appendNumber(builder, ChronoField.MINUTE_OF_HOUR, count);
+            case 's':
+                return appendNumber(builder, ChronoField.SECOND_OF_MINUTE, count);
+            case 'S':
+                // SimpleDateFormat 中 S 为毫秒数而非秒的小数部分
+                return appendNumber(builder, ChronoField.MILLI_OF_SECOND, count);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 追加解析用的数字字段，SimpleDateFormat 只在字段紧跟另一字段时按字母个数读取，否则读取全部连续数字
+     *
+     * @return 该字母不支持快速解析时返回 false
+     */
+    private static boolean appendParseField(DateTimeFormatterBuilder builder, char c, int count, boolean abutting) {
+        ChronoField field;
+        switch (c) {
+            case 'y':
+                // 1~2 位年份按当前时间前 80 年起算，交给 SimpleDateFormat
+                field = count >= 3 ? ChronoField.YEAR_OF_ERA : null;
+                break;
+            case 'M':
+                field = count <= 2 ? ChronoField.MONTH_OF_YEAR : null;
+                break;
+            case 'd':
+                field = ChronoField.DAY_OF_MONTH;
+                break;
+            case 'H':
+                field = ChronoField.HOUR_OF_DAY;
+                break;
+            case 'm':
+                field = ChronoField.MINUTE_OF_HOUR;
+                break;
+            case 's':
+                field = ChronoField.SECOND_OF_MINUTE;
+                break;
+            case 'S':
+                field = ChronoField.MILLI_OF_SECOND;
+                break;
+            default:
+                field = null;
+        }
+        if (field == null || count > 9) {
+            return false;
+        }
+        if (abutting) {
+            builder.appendValue(field, count);
+        } else {
+            // 最多 9 位，避免 SimpleDateFormat 按 int 截断的大数
+            builder.appendValue(field, 1, 9, SignStyle.NOT_NEGATIVE);
+        }
+        return true;
+    }
+
+    private static boolean appendNumber(DateTimeFormatterBuilder builder, ChronoField field, int count) {
+        if (count > 19) {
+            return false;
+        }
+        builder.appendValue(field, count, 19, SignStyle.NOT_NEGATIVE);
+        return true;
+    }
+
+    private static Map<Long, String> textMap(String[] texts, int first) {
+        Map<Long, String> map = new HashMap<>();
+        for (int i = 0; i < texts.length; i++) {
+            map.put((long) (first + i), texts[i]);
+        }
+        return map;
+    }
+
+    /**
+     * {@link DateFormatSymbols} 中星期日为 1，ISO 中星期一为 1
+     */
+    private static Map<Long, String> weekdayMap(String[] weekdays) {
+        Map<Long, String> map = new HashMap<>();
+        for (int day = 1; day <= 7; day++) {
+            map.put((long) day, weekdays[day % 7 + 1]);
+        }
+        return map;
+    }
+
+    /**
+     * 同一格式的 SimpleDateFormat：保留一个空闲实例供取用，已被其他线程取走时复制原型，用完放回，不与线程绑定
+     */
+    private static final class LegacyFormat {
+        private final SimpleDateFormat prototype;
+        private final AtomicReference<SimpleDateFormat> idle = new AtomicReference<>();
+
+        LegacyFormat(String format) {
+            this.prototype = new SimpleDateFormat(format);
+        }
+
+        SimpleDateFormat acquire(ZoneId zone) {
+            SimpleDateFormat sdf = idle.getAndSet(null);
+            if (sdf == null) {
+                sdf = (SimpleDateFormat) prototype.clone();
+            }
+            sdf.setTimeZone(timeZone(zone));
+            return sdf;
+        }
+
+        void release(SimpleDateFormat sdf) {
+            idle.compareAndSet(null, sdf);
+        }
+    }
+
+    private static <K, V> void evictIfFull(ConcurrentMap<K, V> map) {
+        if (map.size() >= MAX_SIZE) {
+            Iterator<K> it = map.keySet().iterator();
+            if (it.hasNext()) {
+                map.remove(it.next());
+            }
+        }
+    }
+}
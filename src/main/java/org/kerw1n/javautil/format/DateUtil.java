@@ -1,10 +1,7 @@
 package org.kerw1n.javautil.format;
 
 import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
 import java.util.Date;
-import java.util.Locale;
 
 /**
  * 日期格式化工具类.
@@ -40,7 +37,7 @@ public class DateUtil {
      * @return
      */
     public static Date getCurrentDate() {
-        return Calendar.getInstance(Locale.CHINA).getTime();
+        return new Date();
     }
 
     /**
@@ -51,7 +48,7 @@ public class DateUtil {
      * @return
      */
     public static String formatDate(Date date, String format) {
-        return SimpleDateFormatFactory.getInstance(format).format(date);
+        return DateTimeFormatterFactory.format(date.getTime(), format);
     }
 
     /**
@@ -62,7 +59,7 @@ public class DateUtil {
      * @return
      */
     public static Date parseDate(String dateStr, String format) throws ParseException {
-        return SimpleDateFormatFactory.getInstance(format).parse(dateStr);
+        return new Date(DateTimeFormatterFactory.parse(dateStr, format));
     }
 
     /**
@@ -72,11 +69,7 @@ public class DateUtil {
      * @return
      */
     public static Date getFirstDateOfMonth(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.add(Calendar.MONTH, 0);
-        calendar.set(Calendar.DAY_OF_MONTH, 1);
-        return getBeginDate(calendar.getTime());
+        return new Date(EpochCalendar.getInstance().beginOfMonth(date.getTime()));
     }
 
     /**
@@ -86,11 +79,7 @@ public class DateUtil {
      * @return
      */
     public static Date getLastDateOfMonth(Date date) {
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        calendar.add(Calendar.MONTH, 1);
-        calendar.set(Calendar.DAY_OF_MONTH, 0);
-        return getEndDate(calendar.getTime());
+        return new Date(EpochCalendar.getInstance().endOfMonth(date.getTime()));
     }
 
     /**
@@ -100,13 +89,7 @@ public class DateUtil {
      * @return
      */
     public static Date getBeginDate(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        cal.set(Calendar.HOUR_OF_DAY, 0);
-        cal.set(Calendar.MINUTE, 0);
-        cal.set(Calendar.SECOND, 0);
-        cal.set(Calendar.MILLISECOND, 0);
-        return cal.getTime();
+        return new Date(EpochCalendar.getInstance().beginOfDay(date.getTime()));
     }
 
     /**
@@ -116,13 +99,7 @@ public class DateUtil {
      * @return
      */
     public static Date getEndDate(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        cal.set(Calendar.HOUR_OF_DAY, 23);
-        cal.set(Calendar.MINUTE, 59);
-        cal.set(Calendar.SECOND, 59);
-        cal.set(Calendar.MILLISECOND, 999);
-        return cal.getTime();
+        return new Date(EpochCalendar.getInstance().endOfDay(date.getTime()));
     }
 
     /**
@@ -180,7 +157,7 @@ public class DateUtil {
      * @return
      */
     public static Date rollSecond(Date date, int second) {
-        return rollByFiled(date, Calendar.SECOND, second);
+        return new Date(EpochCalendar.getInstance().plusSeconds(date.getTime(), second));
     }
 
     /**
@@ -191,7 +168,7 @@ public class DateUtil {
      * @return
      */
     public static Date rollHour(Date date, int hour) {
-        return rollByFiled(date, Calendar.HOUR_OF_DAY, hour);
+        return new Date(EpochCalendar.getInstance().plusHours(date.getTime(), hour));
     }
 
     /**
@@ -202,7 +179,7 @@ public class DateUtil {
      * @return
      */
     public static Date rollDay(Date date, int day) {
-        return rollByFiled(date, Calendar.DAY_OF_MONTH, day);
+        return new Date(EpochCalendar.getInstance().plusDays(date.getTime(), day));
     }
 
     /**
@@ -213,7 +190,7 @@ public class DateUtil {
      * @return
      */
     public static Date rollMonth(Date date, int month) {
-        return rollByFiled(date, Calendar.MONTH, month);
+        return new Date(EpochCalendar.getInstance().plusMonths(date.getTime(), month));
     }
 
     /**
@@ -224,22 +201,7 @@ public class DateUtil {
      * @return
      */
     public static Date rollYear(Date date, int year) {
-        return rollByFiled(date, Calendar.YEAR, year);
-    }
-
-    /**
-     * 处理日期字段值
-     *
-     * @param date   日期
-     * @param field  Calendar 字段
-     * @param amount 字段要添加的值
-     * @return
-     */
-    private static Date rollByFiled(Date date, int field, int amount) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        cal.add(field, amount);
-        return cal.getTime();
+        return new Date(EpochCalendar.getInstance().plusYears(date.getTime(), year));
     }
 
     /**
@@ -264,9 +226,7 @@ public class DateUtil {
      * @throws ParseException 日期解析异常
      */
     public static int compareDateStr(String date1, String date2, String format) throws ParseException {
-        SimpleDateFormat sdf = SimpleDateFormatFactory.getInstance(format);
-        Date d1 = sdf.parse(date1), d2 = sdf.parse(date2);
-        return d1.after(d2) ? 1 : (d1.before(d2) ? -1 : 0);
+        return Long.compare(DateTimeFormatterFactory.parse(date1, format), DateTimeFormatterFactory.parse(date2, format));
     }
 
     /**
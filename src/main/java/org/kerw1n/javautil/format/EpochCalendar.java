@@ -0,0 +1,469 @@
+package org.kerw1n.javautil.format;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.Iterator;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基于毫秒数的日期计算.
+ * <p>
+ * 语义与 {@link java.util.Calendar} 一致：天、月边界按时区的本地时间计算，秒、小时按绝对时间累加，天、月、年按本地时间累加，月末日期越界时取当月最后一天。
+ * 不创建 Calendar，每个时区缓存最近一天与最近一月的边界；当天没有时区偏移变化时同时缓存偏移量，毫秒数与本地时间的换算直接使用缓存的偏移量。
+ * 输入或结果早于 {@link DateTimeFormatterFactory#legacyBefore}（格里高利历切换之前按儒略历，或 {@link TimeZone} 与 java.time 偏移量可能不同的早期时段）时，
+ * 交给 {@link GregorianCalendar} 计算，结果保持一致；Calendar 求月初、月末时保留原时间换日，该时间可能落入偏移变化的间隙而顺延一天，
+ * 所涉及的日期存在偏移变化时同样交给 GregorianCalendar。
+ * <p>
+ * 实例不可变，线程安全，按时区共享。
+ *
+ * @author : kerw1n
+ **/
+public final class EpochCalendar {
+
+    private static final long DAY_MILLIS = DateUtil.DAY_SECONDS * DateUtil.SECONDS_MILLS;
+    private static final long HOUR_MILLIS = DateUtil.HOUR_SECONDS * DateUtil.SECONDS_MILLS;
+    /**
+     * 当天存在时区偏移变化，偏移量不可缓存
+     */
+    private static final int NO_OFFSET = Integer.MIN_VALUE;
+    /**
+     * 缓存的时区数量上限
+     */
+    private static final int MAX_SIZE = 64;
+    private static final long[] NO_DAYS = new long[0];
+
+    private static final ConcurrentMap<ZoneId, EpochCalendar> INSTANCE_MAP = new ConcurrentHashMap<>();
+
+    private final ZoneId zone;
+    private final ZoneRules rules;
+    private final TimeZone timeZone;
+    /**
+     * 早于该毫秒数的输入或结果交给 GregorianCalendar
+     */
+    private final long legacyBefore;
+    /**
+     * 固定偏移时区的偏移毫秒数，非固定偏移为 {@link #NO_OFFSET}
+     */
+    private final int fixedOffset;
+
+    /**
+     * 最近一天的缓存
+     */
+    private volatile Span day;
+    /**
+     * 最近一月的缓存
+     */
+    private volatile Span month;
+
+    private EpochCalendar(ZoneId zone) {
+        this.zone = zone;
+        this.rules = zone.getRules();
+        this.timeZone = TimeZone.getTimeZone(zone);
+        this.legacyBefore = DateTimeFormatterFactory.legacyBefore(zone);
+        this.fixedOffset = rules.isFixedOffset() ? rules.getOffset(Instant.EPOCH).getTotalSeconds() * 1000 : NO_OFFSET;
+    }
+
+    /**
+     * 获取系统默认时区下的实例
+     *
+     * @return
+     */
+    public static EpochCalendar getInstance() {
+        return getInstance(ZoneId.systemDefault());
+    }
+
+    /**
+     * 获取指定时区下的实例
+     *
+     * @param zone 时区
+     * @return
+     */
+    public static EpochCalendar getInstance(ZoneId zone) {
+        EpochCalendar calendar = INSTANCE_MAP.get(zone);
+        if (calendar == null) {
+            evictIfFull();
+            calendar = INSTANCE_MAP.computeIfAbsent(zone, EpochCalendar::new);
+        }
+        return calendar;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 当天开始的毫秒数(00:00:00.0)
+     *
+     * @param epochMilli 毫秒数
+     * @return
+     */
+    public long beginOfDay(long epochMilli) {
+        long begin = epochMilli >= legacyBefore ? day(epochMilli).begin : Long.MIN_VALUE;
+        return begin >= legacyBefore ? begin : legacyBeginOfDay(epochMilli);
+    }
+
+    /**
+     * 当天最后的毫秒数(23:59:59.999)
+     *
+     * @param epochMilli 毫秒数
+     * @return
+     */
+    public long endOfDay(long epochMilli) {
+        long end = epochMilli >= legacyBefore ? day(epochMilli).end : Long.MIN_VALUE;
+        return end >= legacyBefore ? end : legacyEndOfDay(epochMilli);
+    }
+
+    /**
+     * 当月月初开始的毫秒数
+     *
+     * @param epochMilli 毫秒数
+     * @return
+     */
+    public long beginOfMonth(long epochMilli) {
+        if (epochMilli >= legacyBefore) {
+            Span m = month(epochMilli);
+            // Calendar 先保留时间将日期设为 1 日，该时间落入间隙时会顺延到 2 日
+            if (m.begin >= legacyBefore
+                    && (m.transitionDays.length == 0 || !m.hasTransition(toLocalDate(epochMilli).withDayOfMonth(1)))) {
+                return m.begin;
+            }
+        }
+        Calendar calendar = legacyCalendar(epochMilli);
+        calendar.add(Calendar.MONTH, 0);
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        return legacyBeginOfDay(calendar.getTimeInMillis());
+    }
+
+    /**
+     * 当月月末最后的毫秒数
+     *
+     * @param epochMilli 毫秒数
+     * @return
+     */
+    public long endOfMonth(long epochMilli) {
+        if (epochMilli >= legacyBefore) {
+            Span m = month(epochMilli);
+            // Calendar 先保留时间加一个月再退到上月末，两步的时间落入间隙时都会顺延
+            if (m.end >= legacyBefore && (m.transitionDays.length == 0 || !monthEndShifted(m, toLocalDate(epochMilli)))) {
+                return m.end;
+            }
+        }
+        Calendar calendar = legacyCalendar(epochMilli);
+        calendar.add(Calendar.MONTH, 1);
+        calendar.set(Calendar.DAY_OF_MONTH, 0);
+        return legacyEndOfDay(calendar.getTimeInMillis());
+    }
+
+    /**
+     * 毫秒数对应的本地日期
+     *
+     * @param epochMilli 毫秒数
+     * @return
+     */
+    public LocalDate toLocalDate(long epochMilli) {
+        return LocalDate.ofEpochDay(Math.floorDiv(epochMilli + offset(epochMilli), DAY_MILLIS));
+    }
+
+    /**
+     * n秒前/后的毫秒数
+     *
+     * @param epochMilli 毫秒数
+     * @param seconds    秒数
+     * @return
+     */
+    public long plusSeconds(long epochMilli, long seconds) {
+        return epochMilli + seconds * DateUtil.SECONDS_MILLS;
+    }
+
+    /**
+     * n小时前/后的毫秒数
+     *
+     * @param epochMilli 毫秒数
+     * @param hours      小时数
+     * @return
+     */
+    public long plusHours(long epochMilli, long hours) {
+        return epochMilli + hours * HOUR_MILLIS;
+    }
+
+    /**
+     * n天前/后的毫秒数，本地时间不变；落入时区偏移变化的间隙时与 Calendar 一致按原偏移量回退
+     *
+     * @param epochMilli 毫秒数
+     * @param days       天数
+     * @return
+     */
+    public long plusDays(long epochMilli, long days) {
+        if (days == 0) {
+            return epochMilli;
+        }
+        long result = epochMilli >= legacyBefore ? fastPlusDays(epochMilli, days) : Long.MIN_VALUE;
+        return result >= legacyBefore ? result : legacyAdd(epochMilli, Calendar.DAY_OF_MONTH, days);
+    }
+
+    private long fastPlusDays(long epochMilli, long days) {
+        int offset = offset(epochMilli);
+        long local = epochMilli + offset + days * DAY_MILLIS;
+        long result = local - offset;
+        int diff = offset - offset(result);
+        if (diff != 0) {
+            // 同 GregorianCalendar#add：按新偏移量修正，修正后跨天则保留原结果
+            long adjusted = result + diff;
+            if (Math.floorDiv(adjusted + offset(adjusted), DAY_MILLIS) == Math.floorDiv(local, DAY_MILLIS)) {
+                result = adjusted;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * n月前/后的毫秒数，本地时间不变，日期越界时取当月最后一天
+     *
+     * @param epochMilli 毫秒数
+     * @param months     月数
+     * @return
+     */
+    public long plusMonths(long epochMilli, long months) {
+        if (months == 0) {
+            return epochMilli;
+        }
+        long result = epochMilli >= legacyBefore ? fastPlusMonths(epochMilli, months) : Long.MIN_VALUE;
+        return result >= legacyBefore ? result : legacyAdd(epochMilli, Calendar.MONTH, months);
+    }
+
+    private long fastPlusMonths(long epochMilli, long months) {
+        long local = epochMilli + offset(epochMilli);
+        long epochDay = Math.floorDiv(local, DAY_MILLIS);
+        long target = LocalDate.ofEpochDay(epochDay).plusMonths(months).toEpochDay();
+        return resolve(local + (target - epochDay) * DAY_MILLIS);
+    }
+
+    /**
+     * n年前/后的毫秒数，本地时间不变，2月29日越界时取2月28日
+     *
+     * @param epochMilli 毫秒数
+     * @param years      年数
+     * @return
+     */
+    public long plusYears(long epochMilli, long years) {
+        if (years == 0) {
+            return epochMilli;
+        }
+        long result = epochMilli >= legacyBefore ? fastPlusMonths(epochMilli, Math.multiplyExact(years, 12L)) : Long.MIN_VALUE;
+        return result >= legacyBefore ? result : legacyAdd(epochMilli, Calendar.YEAR, years);
+    }
+
+    private boolean monthEndShifted(Span m, LocalDate date) {
+        LocalDate next = date.plusMonths(1);
+        return m.hasTransition(next) || m.hasTransition(next.withDayOfMonth(1).minusDays(1));
+    }
+
+    private GregorianCalendar legacyCalendar(long epochMilli) {
+        GregorianCalendar calendar = new GregorianCalendar(timeZone);
+        calendar.setTimeInMillis(epochMilli);
+        return calendar;
+    }
+
+    private long legacyBeginOfDay(long epochMilli) {
+        return legacySetTime(epochMilli, 0, 0, 0, 0);
+    }
+
+    private long legacyEndOfDay(long epochMilli) {
+        return legacySetTime(epochMilli, 23, 59, 59, 999);
+    }
+
+    private long legacySetTime(long epochMilli, int hour, int minute, int second, int millis) {
+        Calendar calendar = legacyCalendar(epochMilli);
+        calendar.set(Calendar.HOUR_OF_DAY, hour);
+        calendar.set(Calendar.MINUTE, minute);
+        calendar.set(Calendar.SECOND, second);
+        calendar.set(Calendar.MILLISECOND, millis);
+        return calendar.getTimeInMillis();
+    }
+
+    private long legacyAdd(long epochMilli, int field, long amount) {
+        Calendar calendar = legacyCalendar(epochMilli);
+        calendar.add(field, Math.toIntExact(amount));
+        return calendar.getTimeInMillis();
+    }
+
+    /**
+     * 偏移毫秒数，优先使用缓存
+     */
+    private int offset(long epochMilli) {
+        if (fixedOffset != NO_OFFSET) {
+            return fixedOffset;
+        }
+        Span d = day;
+        if (d != null && d.offset != NO_OFFSET && d.contains(epochMilli)) {
+            return d.offset;
+        }
+        return rules.getOffset(Instant.ofEpochMilli(epochMilli)).getTotalSeconds() * 1000;
+    }
+
+    /**
+     * 本地毫秒数转毫秒数，与 Calendar 一致：重叠时段取标准时间，间隙时段按变化前的偏移量顺延
+     */
+    private long resolve(long localMilli) {
+        if (fixedOffset != NO_OFFSET) {
+            return localMilli - fixedOffset;
+        }
+        Span d = day;
+        if (d != null && d.offset != NO_OFFSET && d.contains(localMilli - d.offset)) {
+            return localMilli - d.offset;
+        }
+        LocalDateTime dateTime = LocalDateTime.ofEpochSecond(Math.floorDiv(localMilli, DateUtil.SECONDS_MILLS),
+                (int) Math.floorMod(localMilli, DateUtil.SECONDS_MILLS) * 1000_000, ZoneOffset.UTC);
+        ZoneOffsetTransition transition = rules.getTransition(dateTime);
+        ZoneOffset offset;
+        if (transition == null) {
+            offset = rules.getOffset(dateTime);
+        } else {
+            offset = transition.isOverlap() ? transition.getOffsetAfter() : transition.getOffsetBefore();
+        }
+        return localMilli - offset.getTotalSeconds() * 1000L;
+    }
+
+    private Span day(long epochMilli) {
+        Span d = day;
+        if (d != null && d.contains(epochMilli)) {
+            return d;
+        }
+        LocalDate date = toLocalDate(epochMilli);
+        long begin = beginOf(date);
+        long next = beginOf(date.plusDays(1));
+        d = new Span(begin, next, endOf(date), offsetOf(begin, next), NO_DAYS);
+        day = d;
+        return d;
+    }
+
+    private Span month(long epochMilli) {
+        Span m = month;
+        if (m != null && m.contains(epochMilli)) {
+            return m;
+        }
+        LocalDate first = toLocalDate(epochMilli).withDayOfMonth(1);
+        LocalDate next = first.plusMonths(1);
+        long begin = beginOf(first);
+        m = new Span(begin, beginOf(next), endOf(next.minusDays(1)), NO_OFFSET, transitionDays(begin, beginOf(next.plusMonths(1))));
+        month = m;
+        return m;
+    }
+
+    /**
+     * 与 Calendar 一致：零点处于间隙时顺延，处于重叠时段时取标准时间
+     */
+    private long beginOf(LocalDate date) {
+        if (fixedOffset != NO_OFFSET) {
+            return date.toEpochDay() * DAY_MILLIS - fixedOffset;
+        }
+        return date.atStartOfDay()
+                .atZone(zone)
+                .withLaterOffsetAtOverlap()
+                .toInstant()
+                .toEpochMilli();
+    }
+
+    /**
+     * 处于重叠时段时，与 Calendar 一致取标准时间
+     */
+    private long endOf(LocalDate date) {
+        if (fixedOffset != NO_OFFSET) {
+            return (date.toEpochDay() + 1) * DAY_MILLIS - fixedOffset - 1;
+        }
+        return date.atTime(23, 59, 59, 999_000_000)
+                .atZone(zone)
+                .withLaterOffsetAtOverlap()
+                .toInstant()
+                .toEpochMilli();
+    }
+
+    /**
+     * [begin, next] 内没有时区偏移变化时返回偏移毫秒数
+     */
+    private int offsetOf(long begin, long next) {
+        if (fixedOffset != NO_OFFSET) {
+            return fixedOffset;
+        }
+        Instant start = Instant.ofEpochMilli(begin);
+        ZoneOffsetTransition transition = rules.nextTransition(start);
+        // 变化恰好发生在次日零点时，当天末尾的本地时间可能重复，同样不缓存
+        if (transition != null && transition.toEpochSecond() * 1000L <= next) {
+            return NO_OFFSET;
+        }
+        return rules.getOffset(start).getTotalSeconds() * 1000;
+    }
+
+    /**
+     * [begin, until) 内各次偏移变化前后的本地日期
+     */
+    private long[] transitionDays(long begin, long until) {
+        if (fixedOffset != NO_OFFSET) {
+            return NO_DAYS;
+        }
+        long[] days = NO_DAYS;
+        ZoneOffsetTransition transition = rules.nextTransition(Instant.ofEpochMilli(begin - 1));
+        while (transition != null && transition.toEpochSecond() * 1000L < until) {
+            days = Arrays.copyOf(days, days.length + 2);
+            days[days.length - 2] = transition.getDateTimeBefore().toLocalDate().toEpochDay();
+            days[days.length - 1] = transition.getDateTimeAfter().toLocalDate().toEpochDay();
+            transition = rules.nextTransition(transition.getInstant());
+        }
+        return days;
+    }
+
+    private static void evictIfFull() {
+        if (INSTANCE_MAP.size() >= MAX_SIZE) {
+            Iterator<ZoneId> it = INSTANCE_MAP.keySet().iterator();
+            if (it.hasNext()) {
+                INSTANCE_MAP.remove(it.next());
+            }
+        }
+    }
+
+    /**
+     * 缓存的一段时间 [begin, next)，及其最后一毫秒的本地时间 23:59:59.999 对应的毫秒数
+     */
+    private static final class Span {
+        final long begin;
+        final long next;
+        final long end;
+        final int offset;
+        /**
+         * 月份：本月与下月中存在偏移变化的本地日期（epochDay）
+         */
+        final long[] transitionDays;
+
+        Span(long begin, long next, long end, int offset, long[] transitionDays) {
+            this.begin = begin;
+            this.next = next;
+            this.end = end;
+            this.offset = offset;
+            this.transitionDays = transitionDays;
+        }
+
+        boolean contains(long epochMilli) {
+            return epochMilli >= begin && epochMilli < next;
+        }
+
+        boolean hasTransition(LocalDate date) {
+            long epochDay = date.toEpochDay();
+            for (long day : transitionDays) {
+                if (day == epochDay) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
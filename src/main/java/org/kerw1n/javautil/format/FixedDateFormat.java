@@ -0,0 +1,564 @@
+package org.kerw1n.javautil.format;
+
+import java.nio.CharBuffer;
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.zone.ZoneOffsetTransition;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 定宽日期格式的快速格式化与解析.
+ * <p>
+ * 支持 {@link DateUtil.Format#FORMAT_03}、{@link DateUtil.Format#FORMAT_04}、{@link DateUtil.Format#FORMAT_07}、
+ * {@link DateUtil.Format#FORMAT_08}，直接在毫秒数与 char[]/byte[] 之间转换。默认格式化区域不使用格里高利历或 ASCII 数字时
+ * （如 th_TH、ja_JP_JP、ar）不提供实例，由 {@link DateTimeFormatterFactory} 按区域处理。
+ * 缓存最近一天的起始毫秒数与已格式化的日期部分，同一天内只计算时分秒；当天存在时区偏移变化（夏令时切换）时不缓存。
+ * <p>
+ * 线程安全，内部按天缓存；年份超过 9999、早于格里高利历切换（1582 年）或时区的早期偏移变化，以及字段越界时回退到 {@link DateTimeFormatterFactory} 的通用实现，结果保持一致。
+ *
+ * @author : kerw1n
+ **/
+public final class FixedDateFormat {
+
+    private static final long DAY_MILLIS = DateUtil.DAY_SECONDS * DateUtil.SECONDS_MILLS;
+    /**
+     * 0000-01-01 至 1970-01-01 的天数
+     */
+    private static final long DAYS_0000_TO_1970 = 719528L;
+    /**
+     * 解析失败标记
+     */
+    private static final long INVALID = Long.MIN_VALUE;
+
+    private static final String[] PATTERNS = {
+            DateUtil.Format.FORMAT_03, DateUtil.Format.FORMAT_04, DateUtil.Format.FORMAT_07, DateUtil.Format.FORMAT_08
+    };
+    /**
+     * 通用实现输出的年份最多为 9 位（毫秒数的范围），比定宽格式多 5 个字符
+     */
+    private static final int MAX_EXTRA_YEAR_DIGITS = 5;
+    /**
+     * 系统默认时区下的共享实例
+     */
+    private static final AtomicReferenceArray<FixedDateFormat> DEFAULTS = new AtomicReferenceArray<>(PATTERNS.length);
+
+    private final String pattern;
+    private final char[] layout;
+    private final ZoneId zone;
+    /**
+     * 日期与时间之间是否有分隔符
+     */
+    private final boolean separated;
+    private final boolean withTime;
+    private final boolean withMillis;
+    /**
+     * 快速处理的最小年份，更早的交给通用实现
+     */
+    private final int minYear;
+    /**
+     * [minFixedLength, maxFixedLength) 内的毫秒数格式化后长度为 {@link #length()}
+     */
+    private final long minFixedLength;
+    private final long maxFixedLength;
+
+    /**
+     * 最近一天的缓存
+     */
+    private volatile Day day;
+
+    private FixedDateFormat(String pattern, ZoneId zone) {
+        this.pattern = pattern;
+        this.layout = pattern.toCharArray();
+        this.zone = zone;
+        this.separated = pattern.indexOf('-') >= 0;
+        this.withTime = pattern.indexOf('H') >= 0;
+        this.withMillis = pattern.indexOf('S') >= 0;
+        this.minYear = LocalDateTime.ofInstant(Instant.ofEpochMilli(DateTimeFormatterFactory.legacyBefore(zone)), zone)
+                .getYear() + 1;
+        // 公元前按纪年年份输出，下限取公元前 9001 年，儒略历与格里高利历的差异远小于一年
+        this.minFixedLength = LocalDate.of(-9000, 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+        this.maxFixedLength = LocalDate.of(10000, 1, 1).atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 获取系统默认时区下的实例，默认时区在类加载时确定，见 {@link DateTimeFormatterFactory}
+     *
+     * @param pattern 日期格式
+     * @return 不支持的格式返回 null
+     */
+    public static FixedDateFormat getInstance(String pattern) {
+        int index = indexOf(pattern);
+        if (index < 0) {
+            return null;
+        }
+        FixedDateFormat format = DEFAULTS.get(index);
+        if (format == null) {
+            DEFAULTS.compareAndSet(index, null, new FixedDateFormat(PATTERNS[index], DateTimeFormatterFactory.DEFAULT_ZONE));
+            format = DEFAULTS.get(index);
+        }
+        return format;
+    }
+
+    /**
+     * 获取指定时区下的实例，实例自带缓存，应尽量复用
+     *
+     * @param pattern 日期格式
+     * @param zone    时区
+     * @return 不支持的格式返回 null
+     */
+    public static FixedDateFormat getInstance(String pattern, ZoneId zone) {
+        int index = indexOf(pattern);
+        if (index < 0) {
+            return null;
+        }
+        FixedDateFormat format = DEFAULTS.get(index);
+        return format != null && format.zone.equals(zone) ? format : new FixedDateFormat(PATTERNS[index], zone);
+    }
+
+    /**
+     * 创建不共享缓存的新实例，供各自处理连续数据的调用方使用
+     *
+     * @param pattern 日期格式
+     * @param zone    时区
+     * @return 不支持的格式返回 null
+     */
+    static FixedDateFormat newInstance(String pattern, ZoneId zone) {
+        int index = indexOf(pattern);
+        return index < 0 ? null : new FixedDateFormat(PATTERNS[index], zone);
+    }
+
+    private static int indexOf(String pattern) {
+        if (pattern == null || !DateTimeFormatterFactory.isAsciiGregorian()) {
+            return -1;
+        }
+        switch (pattern) {
+            case DateUtil.Format.FORMAT_03:
+                return 0;
+            case DateUtil.Format.FORMAT_04:
+                return 1;
+            case DateUtil.Format.FORMAT_07:
+                return 2;
+            case DateUtil.Format.FORMAT_08:
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    /**
+     * 格式化后的字符数，年份为 4 位时
+     *
+     * @return
+     */
+    public int length() {
+        return layout.length;
+    }
+
+    /**
+     * 格式化后的最大字符数，年份超过 9999 时通用实现输出的年份多于 4 位
+     *
+     * @return
+     */
+    public int maxLength() {
+        return layout.length + MAX_EXTRA_YEAR_DIGITS;
+    }
+
+    /**
+     * 格式化后的长度是否一定为 {@link #length()}，年份超过 9999 时为 false
+     *
+     * @param epochMilli 毫秒数
+     * @return
+     */
+    boolean isFixedLength(long epochMilli) {
+        return epochMilli >= minFixedLength && epochMilli < maxFixedLength;
+    }
+
+    /**
+     * 毫秒数格式化为字符串
+     *
+     * @param epochMilli 毫秒数
+     * @return
+     */
+    public String format(long epochMilli) {
+        char[] buf = new char[layout.length];
+        int len = format(epochMilli, buf, 0);
+        return len < 0 ? general(epochMilli) : new String(buf, 0, len);
+    }
+
+    /**
+     * 毫秒数格式化后写入字符数组
+     *
+     * @param epochMilli 毫秒数
+     * @param buf        目标数组，剩余空间不小于 {@link #maxLength()}；年份不超过 9999 时只需 {@link #length()}
+     * @param off        写入位置
+     * @return 写入的字符数，年份超过 9999 时大于 {@link #length()}
+     * @throws IndexOutOfBoundsException 剩余空间不足，此时不写入任何字符
+     */
+    public int formatTo(long epochMilli, char[] buf, int off) {
+        checkSpace(buf.length, off, layout.length);
+        int len = format(epochMilli, buf, off);
+        if (len < 0) {
+            String text = general(epochMilli);
+            checkSpace(buf.length, off, text.length());
+            text.getChars(0, text.length(), buf, off);
+            len = text.length();
+        }
+        return len;
+    }
+
+    /**
+     * 毫秒数格式化后以 ASCII 写入字节数组
+     *
+     * @param epochMilli 毫秒数
+     * @param buf        目标数组，剩余空间不小于 {@link #maxLength()}；年份不超过 9999 时只需 {@link #length()}
+     * @param off        写入位置
+     * @return 写入的字节数，年份超过 9999 时大于 {@link #length()}
+     * @throws IndexOutOfBoundsException 剩余空间不足，此时不写入任何字节
+     */
+    public int formatTo(long epochMilli, byte[] buf, int off) {
+        checkSpace(buf.length, off, layout.length);
+        Day d = day(epochMilli);
+        if (d != null) {
+            System.arraycopy(d.bytes, 0, buf, off, d.bytes.length);
+            if (withTime) {
+                writeTime((int) (epochMilli - d.start), buf, off + d.bytes.length);
+            }
+            return layout.length;
+        }
+        char[] chars = new char[maxLength()];
+        int len = formatTo(epochMilli, chars, 0);
+        checkSpace(buf.length, off, len);
+        for (int i = 0; i < len; i++) {
+            buf[off + i] = (byte) chars[i];
+        }
+        return len;
+    }
+
+    private static void checkSpace(int length, int off, int required) {
+        if (off < 0 || required > length - off) {
+            throw new IndexOutOfBoundsException("off: " + off + ", required: " + required + ", length: " + length);
+        }
+    }
+
+    /**
+     * 年份超出范围时返回 -1
+     */
+    private int format(long epochMilli, char[] buf, int off) {
+        Day d = day(epochMilli);
+        if (d != null) {
+            System.arraycopy(d.chars, 0, buf, off, d.chars.length);
+            if (withTime) {
+                writeTime((int) (epochMilli - d.start), buf, off + d.chars.length);
+            }
+            return layout.length;
+        }
+        LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), zone);
+        if (!inRange(dateTime.getYear())) {
+            return -1;
+        }
+        int pos = writeDate(dateTime.toLocalDate(), buf, off);
+        if (withTime) {
+            writeTime((int) (dateTime.toLocalTime().toNanoOfDay() / 1000_000L), buf, pos);
+        }
+        return layout.length;
+    }
+
+    private String general(long epochMilli) {
+        return DateTimeFormatterFactory.format(epochMilli, pattern, zone);
+    }
+
+    /**
+     * 字符串解析为毫秒数
+     *
+     * @param text 日期字符串
+     * @return 毫秒数
+     * @throws ParseException 日期解析异常
+     */
+    public long parse(CharSequence text) throws ParseException {
+        long millis = text.length() == layout.length ? parseFixed(text, 0) : INVALID;
+        return millis != INVALID ? millis : DateTimeFormatterFactory.parse(text, pattern, zone);
+    }
+
+    /**
+     * 字符数组解析为毫秒数
+     *
+     * @param buf 字符数组
+     * @param off 起始位置
+     * @param len 长度
+     * @return 毫秒数
+     * @throws ParseException 日期解析异常
+     */
+    public long parse(char[] buf, int off, int len) throws ParseException {
+        return parse(CharBuffer.wrap(buf, off, len));
+    }
+
+    /**
+     * ASCII 字节数组解析为毫秒数
+     *
+     * @param buf 字节数组
+     * @param off 起始位置
+     * @param len 长度
+     * @return 毫秒数
+     * @throws ParseException 日期解析异常
+     */
+    public long parse(byte[] buf, int off, int len) throws ParseException {
+        long millis = len == layout.length ? parseFixed(buf, off) : INVALID;
+        if (millis != INVALID) {
+            return millis;
+        }
+        char[] chars = new char[len];
+        for (int i = 0; i < len; i++) {
+            chars[i] = (char) (buf[off + i] & 0xFF);
+        }
+        return DateTimeFormatterFactory.parse(CharBuffer.wrap(chars), pattern, zone);
+    }
+
+    private long parseFixed(CharSequence text, int off) {
+        int y = 0, mo = 0, d = 0, h = 0, mi = 0, s = 0, ms = 0;
+        for (int i = 0; i < layout.length; i++) {
+            char p = layout[i];
+            int c = text.charAt(off + i);
+            if (p >= 'A') {
+                int v = c - '0';
+                if (v < 0 || v > 9) {
+                    return INVALID;
+                }
+                switch (p) {
+                    case 'y': y = y * 10 + v; break;
+                    case 'M': mo = mo * 10 + v; break;
+                    case 'd': d = d * 10 + v; break;
+                    case 'H': h = h * 10 + v; break;
+                    case 'm': mi = mi * 10 + v; break;
+                    case 's': s = s * 10 + v; break;
+                    default: ms = ms * 10 + v; break;
+                }
+            } else if (c != p) {
+                return INVALID;
+            }
+        }
+        return toEpochMilli(y, mo, d, h, mi, s, ms);
+    }
+
+    private long parseFixed(byte[] buf, int off) {
+        int y = 0, mo = 0, d = 0, h = 0, mi = 0, s = 0, ms = 0;
+        for (int i = 0; i < layout.length; i++) {
+            char p = layout[i];
+            int c = buf[off + i];
+            if (p >= 'A') {
+                int v = c - '0';
+                if (v < 0 || v > 9) {
+                    return INVALID;
+                }
+                switch (p) {
+                    case 'y': y = y * 10 + v; break;
+                    case 'M': mo = mo * 10 + v; break;
+                    case 'd': d = d * 10 + v; break;
+                    case 'H': h = h * 10 + v; break;
+                    case 'm': mi = mi * 10 + v; break;
+                    case 's': s = s * 10 + v; break;
+                    default: ms = ms * 10 + v; break;
+                }
+            } else if (c != p) {
+                return INVALID;
+            }
+        }
+        return toEpochMilli(y, mo, d, h, mi, s, ms);
+    }
+
+    /**
+     * 年份或字段越界交给通用实现按宽松模式处理
+     */
+    private long toEpochMilli(int year, int month, int dayOfMonth, int hour, int minute, int second, int millis) {
+        if (!inRange(year) || month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > lengthOfMonth(year, month)
+                || hour > 23 || minute > 59 || second > 59) {
+            return INVALID;
+        }
+        long epochDay = toEpochDay(year, month, dayOfMonth);
+        long millisOfDay = ((hour * 60L + minute) * 60L + second) * 1000L + millis;
+        Day d = day;
+        if (d == null || d.epochDay != epochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            d = newDay(date);
+            if (d == null) {
+                // 当天有时区偏移变化，与 SimpleDateFormat 一致：重叠时段取标准时间，间隙时段顺延
+                return date.atStartOfDay().plusNanos(millisOfDay * 1000_000L)
+                        .atZone(zone).withLaterOffsetAtOverlap().toInstant().toEpochMilli();
+            }
+            day = d;
+        }
+        return d.start + millisOfDay;
+    }
+
+    /**
+     * 取毫秒数所在天的缓存，当天不可缓存时返回 null
+     */
+    private Day day(long epochMilli) {
+        Day d = day;
+        if (d != null && epochMilli - d.start >= 0 && epochMilli - d.start < DAY_MILLIS) {
+            return d;
+        }
+        d = newDay(LocalDateTime.ofInstant(Instant.ofEpochMilli(epochMilli), zone).toLocalDate());
+        if (d != null) {
+            day = d;
+        }
+        return d;
+    }
+
+    private Day newDay(LocalDate date) {
+        if (!inRange(date.getYear())) {
+            return null;
+        }
+        ZonedDateTime startOfDay = date.atStartOfDay(zone);
+        if (!startOfDay.toLocalTime().equals(LocalTime.MIDNIGHT)) {
+            // 零点处于时区偏移变化的间隙
+            return null;
+        }
+        long start = startOfDay.toInstant().toEpochMilli();
+        ZoneOffsetTransition transition = zone.getRules().nextTransition(Instant.ofEpochMilli(start));
+        // 恰好在次日零点回拨时当天长于 24 小时，同样不缓存
+        if (transition != null && transition.toEpochSecond() * 1000L <= start + DAY_MILLIS) {
+            return null;
+        }
+        char[] chars = new char[separated && withTime ? 11 : 8];
+        writeDate(date, chars, 0);
+        return new Day(date.toEpochDay(), start, chars);
+    }
+
+    private int writeDate(LocalDate date, char[] buf, int pos) {
+        pos = writeDigits(date.getYear(), 4, buf, pos);
+        if (separated) {
+            buf[pos++] = '-';
+        }
+        pos = writeDigits(date.getMonthValue(), 2, buf, pos);
+        if (separated) {
+            buf[pos++] = '-';
+        }
+        pos = writeDigits(date.getDayOfMonth(), 2, buf, pos);
+        if (separated && withTime) {
+            buf[pos++] = ' ';
+        }
+        return pos;
+    }
+
+    private void writeTime(int millisOfDay, char[] buf, int pos) {
+        int secondOfDay = millisOfDay / 1000;
+        pos = writeDigits(secondOfDay / DateUtil.HOUR_SECONDS, 2, buf, pos);
+        if (separated) {
+            buf[pos++] = ':';
+        }
+        pos = writeDigits(secondOfDay / DateUtil.MINUTE_SECONDS % 60, 2, buf, pos);
+        if (separated) {
+            buf[pos++] = ':';
+        }
+        pos = writeDigits(secondOfDay % 60, 2, buf, pos);
+        if (withMillis) {
+            writeDigits(millisOfDay % 1000, 3, buf, pos);
+        }
+    }
+
+    private void writeTime(int millisOfDay, byte[] buf, int pos) {
+        int secondOfDay = millisOfDay / 1000;
+        pos = writeDigits(secondOfDay / DateUtil.HOUR_SECONDS, 2, buf, pos);
+        if (separated) {
+            buf[pos++] = ':';
+        }
+        pos = writeDigits(secondOfDay / DateUtil.MINUTE_SECONDS % 60, 2, buf, pos);
+        if (separated) {
+            buf[pos++] = ':';
+        }
+        pos = writeDigits(secondOfDay % 60, 2, buf, pos);
+        if (withMillis) {
+            writeDigits(millisOfDay % 1000, 3, buf, pos);
+        }
+    }
+
+    private static int writeDigits(int value, int width, char[] buf, int pos) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    private static int writeDigits(int value, int width, byte[] buf, int pos) {
+        for (int i = pos + width - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return pos + width;
+    }
+
+    /**
+     * 格里高利历切换或时区早期偏移变化所在年份及之前，交给通用实现按 SimpleDateFormat 处理
+     */
+    private boolean inRange(int year) {
+        return year >= minYear && year <= 9999;
+    }
+
+    private static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    /**
+     * 同 {@link LocalDate#toEpochDay()}，年份为正数
+     */
+    private static long toEpochDay(int year, int month, int dayOfMonth) {
+        long total = 365L * year + (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += dayOfMonth - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /**
+     * 缓存的一天，起始毫秒数与格式化后的日期部分
+     */
+    private static final class Day {
+        final long epochDay;
+        final long start;
+        final char[] chars;
+        final byte[] bytes;
+
+        Day(long epochDay, long start, char[] chars) {
+            this.epochDay = epochDay;
+            this.start = start;
+            this.chars = chars;
+            this.bytes = new byte[chars.length];
+            for (int i = 0; i < chars.length; i++) {
+                bytes[i] = (byte) chars[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package org.kerw1n.javautil.format;
+
+import java.text.DateFormat;
+import java.text.FieldPosition;
+import java.text.NumberFormat;
+import java.text.ParseException;
+import java.text.ParsePosition;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * 不可变的 {@link DateFormat}.
+ * <p>
+ * 适配只接受 DateFormat 的接口（如 jackson ObjectMapper），格式化与解析委托给 {@link DateTimeFormatterFactory}，使用系统默认时区，结果与 SimpleDateFormat 一致。
+ * 不持有可变状态，线程安全，{@link #clone()} 返回自身；继承自 DateFormat 的 setter 不影响格式化结果。
+ *
+ * @author : kerw1n
+ **/
+public class ImmutableDateFormat extends DateFormat {
+    private static final long serialVersionUID = 1L;
+
+    private final String pattern;
+
+    public ImmutableDateFormat(String pattern) {
+        this.pattern = pattern;
+        // 父类的 clone、setTimeZone 等方法依赖这两个字段
+        this.calendar = Calendar.getInstance();
+        this.numberFormat = NumberFormat.getIntegerInstance();
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public StringBuffer format(Date date, StringBuffer toAppendTo, FieldPosition fieldPosition) {
+        return toAppendTo.append(DateTimeFormatterFactory.format(date.getTime(), pattern));
+    }
+
+    @Override
+    public Date parse(String source, ParsePosition pos) {
+        int start = pos.getIndex();
+        try {
+            long millis = DateTimeFormatterFactory.parse(source.subSequence(start, source.length()), pattern);
+            pos.setIndex(source.length());
+            return new Date(millis);
+        } catch (ParseException e) {
+            pos.setErrorIndex(start + Math.max(e.getErrorOffset(), 0));
+            return null;
+        }
+    }
+
+    @Override
+    public Object clone() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ImmutableDateFormat && pattern.equals(((ImmutableDateFormat) obj).pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return pattern.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return pattern;
+    }
+}
@@ -2,8 +2,15 @@ package org.kerw1n.javautil.format;
 
 import org.slf4j.helpers.Util;
 
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * 字符串格式化替换.
@@ -17,6 +24,25 @@ public class MessageFormatter {
     static final String DELIM_STR = "{}";
     private static final char ESCAPE_CHAR = '\\';
 
+    /**
+     * 缓存的格式数量上限
+     */
+    private static final int MAX_SIZE = 512;
+
+    private static final ConcurrentMap<String, Pattern> PATTERN_MAP = new ConcurrentHashMap<>();
+
+    /**
+     * 线程复用的 StringBuilder 超过该容量后释放，避免长期占用大块内存
+     */
+    private static final int MAX_REUSED_CAPACITY = 4096;
+
+    private static final ThreadLocal<ReusableBuilder> BUILDERS = ThreadLocal.withInitial(ReusableBuilder::new);
+
+    /**
+     * 返回 String 的格式化是否复用线程内的 StringBuilder
+     */
+    private static volatile boolean threadLocalBuilder;
+
     /**
      * {}快速替换.
      *
@@ -25,47 +51,90 @@ public class MessageFormatter {
      * @return 替换后的字符串
      */
     public static String format(final String messagePattern, final Object... argArray) {
+        if (argArray.length == 0) {
+            return messagePattern;
+        }
+        return compile(messagePattern).format(argArray);
+    }
+
+    /**
+     * {}替换后追加到 StringBuilder.
+     *
+     * @param sb             目标
+     * @param messagePattern 原字符串
+     * @param argArray       参数
+     * @return sb
+     */
+    public static StringBuilder formatTo(final StringBuilder sb, final String messagePattern, final Object... argArray) {
+        return compile(messagePattern).formatTo(sb, argArray);
+    }
+
+    /**
+     * {}替换后追加到 Appendable.
+     *
+     * @param out            目标
+     * @param messagePattern 原字符串
+     * @param argArray       参数
+     * @return out
+     * @throws IOException 写入异常
+     */
+    public static <A extends Appendable> A formatTo(final A out, final String messagePattern, final Object... argArray)
+            throws IOException {
+        return compile(messagePattern).formatTo(out, argArray);
+    }
+
+    /**
+     * {}替换后写入 CharBuffer.
+     *
+     * @param buf            目标
+     * @param messagePattern 原字符串
+     * @param argArray       参数
+     * @return buf
+     * @throws java.nio.BufferOverflowException 剩余空间不足，此时 buf 不变
+     */
+    public static CharBuffer formatTo(final CharBuffer buf, final String messagePattern, final Object... argArray) {
+        return compile(messagePattern).formatTo(buf, argArray);
+    }
 
-        int i = 0;
-        int j;
-        StringBuilder sb = new StringBuilder(messagePattern.length() + 50);
+    /**
+     * 设置返回 String 的格式化是否复用线程内的 StringBuilder，默认关闭.
+     * <p>
+     * 开启后每次格式化只分配结果 String；格式化过程中参数的 toString() 再次调用格式化时自动使用新的 StringBuilder。
+     *
+     * @param enabled 是否开启
+     */
+    public static void setThreadLocalBuilder(boolean enabled) {
+        threadLocalBuilder = enabled;
+    }
 
-        int l;
-        for (l = 0; l < argArray.length; l++) {
+    public static boolean isThreadLocalBuilder() {
+        return threadLocalBuilder;
+    }
 
-            j = messagePattern.indexOf(DELIM_STR, i);
+    /**
+     * 预编译格式，结果按格式缓存.
+     * <p>
+     * 编译时一次性拆分出文本与占位符，格式化时不再查找占位符与转义符。
+     *
+     * @param messagePattern 原字符串
+     * @return 编译后的格式
+     */
+    public static Pattern compile(final String messagePattern) {
+        Pattern pattern = PATTERN_MAP.get(messagePattern);
+        if (pattern == null) {
+            evictIfFull();
+            pattern = PATTERN_MAP.computeIfAbsent(messagePattern, Pattern::new);
+        }
+        return pattern;
+    }
 
-            // no more variables
-            if (j == -1) {
-                if (i == 0) {
-                    return messagePattern;
-                } else {  // add the remaining string
-                    sb.append(messagePattern, i, messagePattern.length());
-                    return sb.toString();
-                }
-            } else {
-                if (isEscapedDelimeter(messagePattern, j)) {
-                    if (!isDoubleEscaped(messagePattern, j)) {
-                        l--;
-                        sb.append(messagePattern, i, j - 1);
-                        sb.append(DELIM_START);
-                        i = j + 1;
-                    } else {
-                        sb.append(messagePattern, i, j - 1);
-                        deeplyAppendParameter(sb, argArray[l], new HashMap<>());
-                        i = j + 2;
-                    }
-                } else {
-                    // normal case
-                    sb.append(messagePattern, i, j);
-                    deeplyAppendParameter(sb, argArray[l], new HashMap<>());
-                    i = j + 2;
-                }
+    private static void evictIfFull() {
+        if (PATTERN_MAP.size() >= MAX_SIZE) {
+            Iterator<String> it = PATTERN_MAP.keySet().iterator();
+            if (it.hasNext()) {
+                PATTERN_MAP.remove(it.next());
             }
         }
-        // append the characters following the last {} pair.
-        sb.append(messagePattern, i, messagePattern.length());
-        return sb.toString();
     }
 
     private static boolean isDoubleEscaped(String messagePattern, int delimeterStartIndex) {
@@ -80,6 +149,9 @@ public class MessageFormatter {
         return potentialEscape == ESCAPE_CHAR;
     }
 
+    /**
+     * @param seenMap 已访问的对象数组，仅在遇到对象数组时创建，可为 null
+     */
     private static void deeplyAppendParameter(StringBuilder sb, Object o, Map<Object[], Object> seenMap) {
         if (o == null) {
             sb.append("null");
@@ -125,6 +197,9 @@ public class MessageFormatter {
 
     private static void objectArrayAppend(StringBuilder sb, Object[] a, Map<Object[], Object> seenMap) {
         sb.append('[');
+        if (seenMap == null) {
+            seenMap = new HashMap<>();
+        }
         if (!seenMap.containsKey(a)) {
             seenMap.put(a, null);
             final int len = a.length;
@@ -239,4 +314,215 @@ public class MessageFormatter {
         sb.append(']');
     }
 
+    /**
+     * 编译后的格式.
+     * <p>
+     * 按原字符串中 {} 出现的顺序记录每一段文本的结束位置、下一段的起始位置及类型，与 {@link #format(String, Object...)} 的处理结果一致：
+     * 参数用尽后剩余部分原样输出，其中的转义符不做处理。实例不可变，线程安全。
+     */
+    public static final class Pattern {
+        /**
+         * 参数占位符
+         */
+        private static final byte ARG = 0;
+        /**
+         * 转义的 \{}，输出 {，不消耗参数
+         */
+        private static final byte ESCAPED = 1;
+
+        private final String messagePattern;
+        /**
+         * 每个占位符之前文本的结束位置（不包含）
+         */
+        private final int[] ends;
+        /**
+         * 每个占位符之后文本的起始位置
+         */
+        private final int[] nexts;
+        private final byte[] types;
+
+        private Pattern(String messagePattern) {
+            this.messagePattern = messagePattern;
+            int capacity = 4;
+            int[] ends = new int[capacity];
+            int[] nexts = new int[capacity];
+            byte[] types = new byte[capacity];
+            int count = 0;
+            int i = 0;
+            int j;
+            while ((j = messagePattern.indexOf(DELIM_STR, i)) != -1) {
+                if (count == capacity) {
+                    capacity <<= 1;
+                    ends = Arrays.copyOf(ends, capacity);
+                    nexts = Arrays.copyOf(nexts, capacity);
+                    types = Arrays.copyOf(types, capacity);
+                }
+                if (isEscapedDelimeter(messagePattern, j)) {
+                    ends[count] = j - 1;
+                    if (!isDoubleEscaped(messagePattern, j)) {
+                        types[count] = ESCAPED;
+                        i = j + 1;
+                    } else {
+                        types[count] = ARG;
+                        i = j + 2;
+                    }
+                } else {
+                    ends[count] = j;
+                    types[count] = ARG;
+                    i = j + 2;
+                }
+                nexts[count++] = i;
+            }
+            this.ends = Arrays.copyOf(ends, count);
+            this.nexts = Arrays.copyOf(nexts, count);
+            this.types = Arrays.copyOf(types, count);
+        }
+
+        public String getMessagePattern() {
+            return messagePattern;
+        }
+
+        /**
+         * {}替换.
+         *
+         * @param argArray 参数
+         * @return 替换后的字符串
+         */
+        public String format(final Object... argArray) {
+            if (argArray.length == 0 || ends.length == 0) {
+                return messagePattern;
+            }
+            if (!threadLocalBuilder) {
+                StringBuilder sb = new StringBuilder(messagePattern.length() + 50);
+                appendTo(sb, argArray);
+                return sb.toString();
+            }
+            ReusableBuilder builder = BUILDERS.get();
+            StringBuilder sb = builder.acquire();
+            try {
+                appendTo(sb, argArray);
+                return sb.toString();
+            } finally {
+                builder.release(sb);
+            }
+        }
+
+        /**
+         * {}替换后追加到 StringBuilder.
+         *
+         * @param sb       目标
+         * @param argArray 参数
+         * @return sb
+         */
+        public StringBuilder formatTo(final StringBuilder sb, final Object... argArray) {
+            if (argArray.length == 0 || ends.length == 0) {
+                return sb.append(messagePattern);
+            }
+            appendTo(sb, argArray);
+            return sb;
+        }
+
+        /**
+         * {}替换后追加到 Appendable，StringBuilder 直接写入，其他类型先在线程内的 StringBuilder 中格式化再整体追加.
+         *
+         * @param out      目标
+         * @param argArray 参数
+         * @return out
+         * @throws IOException 写入异常
+         */
+        public <A extends Appendable> A formatTo(final A out, final Object... argArray) throws IOException {
+            if (out instanceof StringBuilder) {
+                formatTo((StringBuilder) out, argArray);
+                return out;
+            }
+            if (argArray.length == 0 || ends.length == 0) {
+                out.append(messagePattern);
+                return out;
+            }
+            ReusableBuilder builder = BUILDERS.get();
+            StringBuilder sb = builder.acquire();
+            try {
+                appendTo(sb, argArray);
+                out.append(sb, 0, sb.length());
+            } finally {
+                builder.release(sb);
+            }
+            return out;
+        }
+
+        /**
+         * {}替换后写入 CharBuffer.
+         *
+         * @param buf      目标
+         * @param argArray 参数
+         * @return buf
+         * @throws BufferOverflowException 剩余空间不足，此时 buf 不变
+         */
+        public CharBuffer formatTo(final CharBuffer buf, final Object... argArray) {
+            ReusableBuilder builder = BUILDERS.get();
+            StringBuilder sb = builder.acquire();
+            try {
+                formatTo(sb, argArray);
+                int len = sb.length();
+                if (len > buf.remaining()) {
+                    throw new BufferOverflowException();
+                }
+                if (buf.hasArray()) {
+                    sb.getChars(0, len, buf.array(), buf.arrayOffset() + buf.position());
+                    buf.position(buf.position() + len);
+                } else {
+                    for (int i = 0; i < len; i++) {
+                        buf.put(sb.charAt(i));
+                    }
+                }
+            } finally {
+                builder.release(sb);
+            }
+            return buf;
+        }
+
+        private void appendTo(StringBuilder sb, Object[] argArray) {
+            int i = 0;
+            int l = 0;
+            for (int k = 0; k < ends.length && l < argArray.length; k++) {
+                sb.append(messagePattern, i, ends[k]);
+                if (types[k] == ESCAPED) {
+                    sb.append(DELIM_START);
+                } else {
+                    deeplyAppendParameter(sb, argArray[l++], null);
+                }
+                i = nexts[k];
+            }
+            // append the characters following the last {} pair.
+            sb.append(messagePattern, i, messagePattern.length());
+        }
+    }
+
+    /**
+     * 线程内复用的 StringBuilder，正在使用时（参数的 toString() 中再次格式化）返回新的实例
+     */
+    private static final class ReusableBuilder {
+        private StringBuilder sb = new StringBuilder(256);
+        private boolean inUse;
+
+        StringBuilder acquire() {
+            if (inUse) {
+                return new StringBuilder(256);
+            }
+            inUse = true;
+            return sb;
+        }
+
+        void release(StringBuilder used) {
+            if (used != sb) {
+                return;
+            }
+            inUse = false;
+            if (used.capacity() > MAX_REUSED_CAPACITY) {
+                sb = new StringBuilder(256);
+            } else {
+                used.setLength(0);
+            }
+        }
+    }
 }
@@ -1,17 +1,34 @@
 package org.kerw1n.javautil.format;
 
+import org.codehaus.jackson.Base64Variant;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
 import org.codehaus.jackson.map.DeserializationConfig;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
+import org.codehaus.jackson.map.ObjectWriter;
+import org.codehaus.jackson.util.JsonGeneratorDelegate;
+import org.codehaus.jackson.util.TokenBuffer;
+import org.kerw1n.javautil.file.ByteBufferInputStream;
+import org.kerw1n.javautil.file.ByteBufferOutputStream;
+import org.kerw1n.javautil.serialize.JdkSerializer;
+import org.kerw1n.javautil.serialize.Serializer;
 
 import java.io.*;
+import java.math.BigInteger;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Object工具类
  * <p>
- * 基于jackson {@link ObjectMapper}实现Object转换.
+ * 基于jackson {@link ObjectMapper}实现Object转换，按类型缓存不可变的{@link ObjectReader}/{@link ObjectWriter}.
  * 数组更多操作可直接调用{@link Arrays}提供的API.
  *
  * @author : kerw1n
@@ -86,18 +103,35 @@ public class ObjectUtil {
     }
 
     private static class ObjectMapperInner {
+        /**
+         * 缓存的类型数量上限
+         */
+        private static final int MAX_SIZE = 512;
         private static ObjectMapper mapper = new ObjectMapper();
+        private static final ConcurrentMap<Class<?>, ObjectReader> READER_MAP = new ConcurrentHashMap<>();
+        private static final ConcurrentMap<Class<?>, ObjectWriter> WRITER_MAP = new ConcurrentHashMap<>();
 
         static {
-            // 日期格式
-            mapper.setDateFormat(SimpleDateFormatFactory.getInstance());
+            // 日期格式，线程安全且不随加载线程变化
+            mapper.setDateFormat(new ImmutableDateFormat(DateUtil.Format.FORMAT_03));
             // 配置当json中存在的字段而实体中不存在时不报错
             mapper.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
         }
+
+        private static <V> void evictIfFull(ConcurrentMap<Class<?>, V> map) {
+            if (map.size() >= MAX_SIZE) {
+                Iterator<Class<?>> it = map.keySet().iterator();
+                if (it.hasNext()) {
+                    map.remove(it.next());
+                }
+            }
+        }
     }
 
     /**
      * 获取ObjectMapper实例
+     * <p>
+     * 已缓存的ObjectReader/ObjectWriter在创建时复制了配置，之后修改ObjectMapper的配置对其不生效.
      *
      * @return ObjectMapper
      */
@@ -105,6 +139,52 @@ public class ObjectUtil {
         return ObjectMapperInner.mapper;
     }
 
+    /**
+     * 获取指定类型的ObjectReader，按类型缓存，超出上限后淘汰任意一个已有类型
+     *
+     * @param clazz
+     * @return ObjectReader
+     */
+    public static ObjectReader getReader(Class<?> clazz) {
+        ObjectReader reader = ObjectMapperInner.READER_MAP.get(clazz);
+        if (reader == null) {
+            ObjectMapperInner.evictIfFull(ObjectMapperInner.READER_MAP);
+            reader = ObjectMapperInner.READER_MAP.computeIfAbsent(clazz, c -> getMapper().reader(c));
+        }
+        return reader;
+    }
+
+    /**
+     * 获取指定类型的ObjectWriter，按类型缓存，超出上限后淘汰任意一个已有类型
+     *
+     * @param clazz
+     * @return ObjectWriter
+     */
+    public static ObjectWriter getWriter(Class<?> clazz) {
+        ObjectWriter writer = ObjectMapperInner.WRITER_MAP.get(clazz);
+        if (writer == null) {
+            ObjectMapperInner.evictIfFull(ObjectMapperInner.WRITER_MAP);
+            writer = ObjectMapperInner.WRITER_MAP.computeIfAbsent(clazz, c -> getMapper().writerWithType(c));
+        }
+        return writer;
+    }
+
+    /**
+     * 预热，提前创建指定类型的ObjectReader/ObjectWriter及序列化器、反序列化器，避免首次调用时的构建开销
+     *
+     * @param classes
+     */
+    public static void prewarm(Class<?>... classes) {
+        ObjectMapper mapper = getMapper();
+        for (Class<?> clazz : classes) {
+            getReader(clazz);
+            getWriter(clazz);
+            // 检查的同时会构建并缓存序列化器、反序列化器
+            mapper.canSerialize(clazz);
+            mapper.canDeserialize(mapper.constructType(clazz));
+        }
+    }
+
     /**
      * Object转Map
      *
@@ -112,7 +192,7 @@ public class ObjectUtil {
      * @return
      */
     public static Map<String, Object> objectToMap(Object obj) throws IOException {
-        return jsonToMap(getMapper().writeValueAsString(Objects.requireNonNull(obj)));
+        return convertValue(Objects.requireNonNull(obj), Map.class);
     }
 
     /**
@@ -123,7 +203,7 @@ public class ObjectUtil {
      * @throws IOException
      */
     public static Map<String, Object> jsonToMap(String json) throws IOException {
-        return getMapper().readValue(json, Map.class);
+        return getReader(Map.class).readValue(json);
     }
 
     /**
@@ -136,7 +216,32 @@ public class ObjectUtil {
      * @throws IOException
      */
     public static <T> T mapToObject(Map map, Class<?> clazz) throws IOException {
-        return jsonToObject(getMapper().writeValueAsString(map), clazz);
+        return (T) convertValue(map, clazz);
+    }
+
+    /**
+     * Object转换为指定类型
+     * <p>
+     * 经 {@link TokenBuffer} 直接转换，不生成中间字符串.
+     * 写入时按Json文本的解析结果规整数值与二进制：整数按大小取Integer/Long/BigInteger，float按文本转为double，
+     * byte[]写为Base64字符串，NaN等非数字按配置写为字符串，结果与先转Json再解析一致.
+     *
+     * @param fromValue
+     * @param toValueType
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    public static <T> T convertValue(Object fromValue, Class<T> toValueType) throws IOException {
+        ObjectMapper mapper = getMapper();
+        TokenBuffer buf = new TokenBuffer(mapper);
+        mapper.writeValue(new TextEquivalentGenerator(buf, mapper), fromValue);
+        JsonParser jp = buf.asParser();
+        try {
+            return mapper.readValue(jp, toValueType);
+        } finally {
+            jp.close();
+        }
     }
 
     /**
@@ -149,7 +254,7 @@ public class ObjectUtil {
      * @throws IOException
      */
     public static <T> T jsonToObject(String json, Class<?> clazz) throws IOException {
-        return (T) getMapper().readValue(json, clazz);
+        return getReader(clazz).readValue(json);
     }
 
     /**
@@ -160,37 +265,240 @@ public class ObjectUtil {
      * @throws IOException
      */
     public static String objectToJson(Object obj) throws IOException {
-        return getMapper().writeValueAsString(Objects.requireNonNull(obj));
+        return getWriter(obj.getClass()).writeValueAsString(obj);
     }
 
     /**
-     * 序列化
+     * Object转Json字节数组(UTF-8)
      *
      * @param obj
      * @return
+     * @throws IOException
      */
-    public static byte[] serialize(Object obj) throws IOException {
-        byte[] bytes = null;
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ObjectOutputStream oos = new ObjectOutputStream(baos)) {
-            oos.writeObject(obj);
-            bytes = baos.toByteArray();
+    public static byte[] writeValueAsBytes(Object obj) throws IOException {
+        return getWriter(obj.getClass()).writeValueAsBytes(obj);
+    }
+
+    /**
+     * Object转Json写入输出流(UTF-8)，不关闭输出流
+     *
+     * @param out
+     * @param obj
+     * @throws IOException
+     */
+    public static void writeValue(OutputStream out, Object obj) throws IOException {
+        getWriter(obj.getClass()).writeValue(new NonClosingOutputStream(out), obj);
+    }
+
+    /**
+     * Object转Json写入ByteBuffer(UTF-8)，从position开始写入并移动position
+     *
+     * @param buf 剩余空间不足时抛出{@link BufferOverflowException}，此时position不变
+     * @param obj
+     * @return 写入的字节数
+     * @throws IOException
+     */
+    public static int writeValue(ByteBuffer buf, Object obj) throws IOException {
+        int start = buf.position();
+        try {
+            getWriter(obj.getClass()).writeValue(new ByteBufferOutputStream(buf), obj);
+        } catch (BufferOverflowException e) {
+            buf.position(start);
+            throw e;
         }
-        return bytes;
+        return buf.position() - start;
     }
 
     /**
-     * 反序列化
+     * Json字节数组转Object
+     *
+     * @param json
+     * @param clazz
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    public static <T> T readValue(byte[] json, Class<T> clazz) throws IOException {
+        return getReader(clazz).readValue(json);
+    }
+
+    /**
+     * Json输入流转Object，不关闭输入流
+     *
+     * @param in
+     * @param clazz
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    public static <T> T readValue(InputStream in, Class<T> clazz) throws IOException {
+        return getReader(clazz).readValue(new NonClosingInputStream(in));
+    }
+
+    /**
+     * Json ByteBuffer转Object，读取position至limit之间的数据，读取后position移至limit
+     *
+     * @param buf
+     * @param clazz
+     * @param <T>
+     * @return
+     * @throws IOException
+     */
+    public static <T> T readValue(ByteBuffer buf, Class<T> clazz) throws IOException {
+        if (buf.hasArray()) {
+            T value = getReader(clazz).readValue(buf.array(), buf.arrayOffset() + buf.position(), buf.remaining());
+            buf.position(buf.limit());
+            return value;
+        }
+        return getReader(clazz).readValue(new ByteBufferInputStream(buf));
+    }
+
+    /**
+     * 序列化，使用JDK序列化
+     *
+     * @param obj
+     * @return
+     * @see JdkSerializer
+     */
+    public static byte[] serialize(Object obj) throws IOException {
+        return JdkSerializer.getInstance().serialize(obj);
+    }
+
+    /**
+     * 序列化
+     *
+     * @param obj
+     * @param serializer 序列化实现
+     * @return
+     */
+    public static byte[] serialize(Object obj, Serializer serializer) throws IOException {
+        return serializer.serialize(obj);
+    }
+
+    /**
+     * 序列化后写入ByteBuffer，使用JDK序列化，支持堆外buffer
+     *
+     * @param obj
+     * @param dest 从position开始写入；剩余空间不足时抛出{@link BufferOverflowException}，此时position不变
+     * @return 写入的字节数
+     * @see Serializer#serialize(Object, ByteBuffer)
+     */
+    public static int serialize(Object obj, ByteBuffer dest) throws IOException {
+        return JdkSerializer.getInstance().serialize(obj, dest);
+    }
+
+    /**
+     * 反序列化，使用JDK序列化
      *
      * @param bytes
      * @return
+     * @see JdkSerializer
      */
     public static Object unSerialize(byte[] bytes) throws IOException, ClassNotFoundException {
-        Object obj = null;
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
-             ObjectInputStream ois = new ObjectInputStream(bais)) {
-            obj = ois.readObject();
+        return JdkSerializer.getInstance().deserialize(bytes);
+    }
+
+    /**
+     * 从ByteBuffer反序列化，使用JDK序列化，支持堆外buffer
+     *
+     * @param src position至limit之间为序列化结果，读取后position移至limit
+     * @return
+     * @see Serializer#deserialize(ByteBuffer)
+     */
+    public static Object unSerialize(ByteBuffer src) throws IOException, ClassNotFoundException {
+        return JdkSerializer.getInstance().deserialize(src);
+    }
+
+    /**
+     * 反序列化
+     *
+     * @param bytes
+     * @param serializer 序列化实现，需与序列化时一致
+     * @return
+     */
+    public static Object unSerialize(byte[] bytes, Serializer serializer) throws IOException, ClassNotFoundException {
+        return serializer.deserialize(bytes);
+    }
+
+    /**
+     * 写入 {@link TokenBuffer} 时将值规整为Json文本解析后的类型，TokenBuffer 原样保留 long、float、byte[] 等原生值
+     */
+    private static class TextEquivalentGenerator extends JsonGeneratorDelegate {
+        private final boolean quoteNonNumeric;
+
+        TextEquivalentGenerator(JsonGenerator delegate, ObjectMapper mapper) {
+            super(delegate);
+            this.quoteNonNumeric = mapper.getJsonFactory().isEnabled(JsonGenerator.Feature.QUOTE_NON_NUMERIC_NUMBERS);
+        }
+
+        @Override
+        public void writeNumber(long v) throws IOException {
+            if (v == (int) v) {
+                delegate.writeNumber((int) v);
+            } else {
+                delegate.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(BigInteger v) throws IOException {
+            if (v != null && v.bitLength() < 64) {
+                writeNumber(v.longValue());
+            } else {
+                delegate.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(double v) throws IOException {
+            if (quoteNonNumeric && (Double.isNaN(v) || Double.isInfinite(v))) {
+                delegate.writeString(String.valueOf(v));
+            } else {
+                delegate.writeNumber(v);
+            }
+        }
+
+        @Override
+        public void writeNumber(float v) throws IOException {
+            // 文本为 Float.toString 的结果，解析为 double
+            writeNumber(Double.parseDouble(Float.toString(v)));
+        }
+
+        @Override
+        public void writeBinary(Base64Variant b64variant, byte[] data, int offset, int len) throws IOException {
+            delegate.writeString(b64variant.encode(Arrays.copyOfRange(data, offset, offset + len)));
+        }
+    }
+
+    /**
+     * 忽略close()的输出流，ObjectMapper写入完成后会关闭目标流
+     */
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    /**
+     * 忽略close()的输入流，ObjectMapper读取完成后会关闭来源流
+     */
+    private static class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
         }
-        return obj;
     }
 }
@@ -1,33 +1,25 @@
 package org.kerw1n.javautil.format;
 
 import java.text.SimpleDateFormat;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * SimpleDateFormat 工厂.
  *
  * @author : kerw1n
+ * @deprecated 每个格式在每个线程中常驻一个 SimpleDateFormat，请使用线程安全的 {@link DateTimeFormatterFactory}
  **/
+@Deprecated
 public class SimpleDateFormatFactory {
 
-    private static final Map<String, ThreadLocal<SimpleDateFormat>> FORMAT_MAP = new HashMap<>();
+    private static final ConcurrentMap<String, ThreadLocal<SimpleDateFormat>> FORMAT_MAP = new ConcurrentHashMap<>();
 
     public static SimpleDateFormat getInstance() {
         return getInstance(DateUtil.Format.FORMAT_03);
     }
 
     public static SimpleDateFormat getInstance(String format) {
-        ThreadLocal<SimpleDateFormat> sdf = FORMAT_MAP.get(format);
-        if (null == sdf) {
-            sdf = new ThreadLocal<SimpleDateFormat>() {
-                @Override
-                protected SimpleDateFormat initialValue() {
-                    return new SimpleDateFormat(format);
-                }
-            };
-            FORMAT_MAP.put(format, sdf);
-        }
-        return sdf.get();
+        return FORMAT_MAP.computeIfAbsent(format, f -> ThreadLocal.withInitial(() -> new SimpleDateFormat(f))).get();
     }
 }
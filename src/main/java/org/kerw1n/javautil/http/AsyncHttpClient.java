@@ -0,0 +1,528 @@
+package org.kerw1n.javautil.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.reactor.IOReactorException;
+import org.apache.http.pool.PoolStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 异步 HTTP 客户端
+ * <p>
+ * 基于 NIO 的 HttpAsyncClient，少量 I/O 线程即可同时处理成千上万个进行中的请求，调用线程不会阻塞。
+ * 请求由 {@link HttpRequestBuilder} 描述，结果以 {@link CompletableFuture} 返回：
+ * <ul>
+ * <li>超时：可为每次调用设置整体时限，到期后 future 以 {@link TimeoutException} 结束并中止请求；连接、读取超时见 {@link HttpRequestBuilder#config}</li>
+ * <li>取消：对返回的 future 调用 cancel 会中止请求并释放连接</li>
+ * <li>扇出/汇总：{@link #executeAll}、{@link #allOf(List)}、{@link #allOf(List, Function)}、{@link #anyOf(List)}</li>
+ * </ul>
+ * 响应体先完整读入内存再交给处理函数，处理函数及未指定 executor 的后续阶段运行在 I/O 线程上，不应阻塞。线程安全。
+ *
+ * <pre>
+ * List&lt;HttpRequestBuilder&gt; calls = ...;
+ * AsyncHttpClient.getDefault().executeAll(calls, 3, TimeUnit.SECONDS)
+ *         .thenAccept(bodies -&gt; ...);
+ * </pre>
+ *
+ * @author kerw1n
+ */
+public final class AsyncHttpClient implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncHttpClient.class);
+
+    private static final int DEFAULT_MAX_TOTAL = 1024;
+    private static final int DEFAULT_MAX_PER_ROUTE = 128;
+    private static final long DEFAULT_MAX_IDLE_MILLIS = 30000;
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+    private static final int CONNECT_TIMEOUT = 60000;
+    private static final int REQUEST_TIMEOUT = 60000;
+    private static final int SOCKET_TIMEOUT = 60000;
+
+    /**
+     * 超时及空闲连接清理共用的定时线程
+     */
+    private static final ScheduledThreadPoolExecutor TIMER = newTimer();
+
+    private static volatile AsyncHttpClient defaultClient;
+
+    private final PoolingNHttpClientConnectionManager connectionManager;
+    private final CloseableHttpAsyncClient client;
+    private final ScheduledFuture<?> evictor;
+
+    private AsyncHttpClient(Builder builder) throws IOReactorException {
+        IOReactorConfig reactorConfig = IOReactorConfig.custom()
+                .setIoThreadCount(builder.ioThreadCount)
+                .setConnectTimeout(builder.requestConfig.getConnectTimeout())
+                .setSoTimeout(builder.requestConfig.getSocketTimeout())
+                .build();
+        this.connectionManager = new PoolingNHttpClientConnectionManager(new DefaultConnectingIOReactor(reactorConfig));
+        this.connectionManager.setMaxTotal(builder.maxTotal);
+        this.connectionManager.setDefaultMaxPerRoute(builder.maxPerRoute);
+        builder.routeMax.forEach((host, max) -> connectionManager.setMaxPerRoute(
+                new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName())), max));
+
+        ConnectionKeepAliveStrategy keepAliveStrategy = builder.keepAliveStrategy;
+        if (keepAliveStrategy == null) {
+            keepAliveStrategy = HttpClientPool.keepAliveOrDefault(builder.defaultKeepAlive);
+        }
+        this.client = HttpAsyncClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(builder.requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .build();
+        this.client.start();
+
+        long maxIdleTime = builder.maxIdleTime;
+        long period = Math.max(maxIdleTime / 2, 1000);
+        this.evictor = TIMER.scheduleWithFixedDelay(() -> {
+            connectionManager.closeExpiredConnections();
+            connectionManager.closeIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
+        }, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取默认客户端，首次使用时按默认配置创建；默认客户端不能关闭
+     *
+     * @return
+     */
+    public static AsyncHttpClient getDefault() {
+        AsyncHttpClient c = defaultClient;
+        if (c == null) {
+            synchronized (AsyncHttpClient.class) {
+                c = defaultClient;
+                if (c == null) {
+                    c = custom().build();
+                    defaultClient = c;
+                }
+            }
+        }
+        return c;
+    }
+
+    /**
+     * 替换默认客户端，原客户端不会被关闭，不再使用时可由调用方关闭
+     *
+     * @param client 新的默认客户端
+     * @return 原默认客户端，可能为 null
+     */
+    public static AsyncHttpClient setDefault(AsyncHttpClient client) {
+        if (client == null) {
+            throw new IllegalArgumentException("client require not null.");
+        }
+        synchronized (AsyncHttpClient.class) {
+            AsyncHttpClient old = defaultClient;
+            defaultClient = client;
+            return old;
+        }
+    }
+
+    /**
+     * 自定义客户端
+     *
+     * @return
+     */
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    /**
+     * 执行请求，不限制整体时长
+     *
+     * @param request
+     * @return 状态码为 200 时为响应内容，否则为空字符串
+     */
+    public CompletableFuture<String> execute(HttpRequestBuilder request) {
+        return execute(request.build(), HttpRequestBuilder.BODY_IF_OK, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 执行请求
+     *
+     * @param request
+     * @param timeout 整体时限，包括等待连接、发送和读取响应，不大于 0 时不限制
+     * @param unit
+     * @return 状态码为 200 时为响应内容，否则为空字符串
+     */
+    public CompletableFuture<String> execute(HttpRequestBuilder request, long timeout, TimeUnit unit) {
+        return execute(request.build(), HttpRequestBuilder.BODY_IF_OK, timeout, unit);
+    }
+
+    /**
+     * 执行请求，自定义响应处理
+     *
+     * @param request
+     * @param handler 响应处理，运行在 I/O 线程上
+     * @param timeout 整体时限，不大于 0 时不限制
+     * @param unit
+     * @return
+     */
+    public <T> CompletableFuture<T> execute(HttpRequestBuilder request, ResponseHandler<? extends T> handler,
+                                            long timeout, TimeUnit unit) {
+        return execute(request.build(), handler, timeout, unit);
+    }
+
+    /**
+     * 执行请求，自定义响应处理
+     *
+     * @param request
+     * @param handler 响应处理，运行在 I/O 线程上
+     * @param timeout 整体时限，不大于 0 时不限制
+     * @param unit
+     * @return 完成、异常、超时或被取消时结束；超时或取消时请求被中止
+     */
+    public <T> CompletableFuture<T> execute(HttpUriRequest request, ResponseHandler<? extends T> handler,
+                                            long timeout, TimeUnit unit) {
+        URI uri = request.getURI();
+        LOG.info(uri.getScheme().toUpperCase() + " " + request.getMethod() + " " + uri);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Future<HttpResponse> exchange = client.execute(request, new FutureCallback<HttpResponse>() {
+            @Override
+            public void completed(HttpResponse response) {
+                LOG.info("Response {}", response.getStatusLine());
+                try {
+                    result.complete(handler.handleResponse(response));
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void failed(Exception e) {
+                result.completeExceptionally(e);
+            }
+
+            @Override
+            public void cancelled() {
+                result.cancel(false);
+            }
+        });
+
+        ScheduledFuture<?> timer = null;
+        if (timeout > 0) {
+            timer = TIMER.schedule(() -> result.completeExceptionally(
+                    new TimeoutException(request.getMethod() + " " + uri + " timed out after " + unit.toMillis(timeout) + "ms")),
+                    timeout, unit);
+        }
+        ScheduledFuture<?> t = timer;
+        result.whenComplete((r, e) -> {
+            if (t != null) {
+                t.cancel(false);
+            }
+            // 超时或被调用方取消时中止请求，连接不再复用
+            if (!exchange.isDone()) {
+                exchange.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 并发执行多个请求，全部成功后按原顺序汇总；任一失败或超时时立即失败并取消其余请求
+     *
+     * @param requests
+     * @param timeout  每个请求的整体时限，不大于 0 时不限制
+     * @param unit
+     * @return
+     */
+    public CompletableFuture<List<String>> executeAll(Collection<HttpRequestBuilder> requests, long timeout, TimeUnit unit) {
+        List<CompletableFuture<String>> futures = new ArrayList<>(requests.size());
+        for (HttpRequestBuilder request : requests) {
+            futures.add(execute(request, timeout, unit));
+        }
+        return allOf(futures);
+    }
+
+    /**
+     * 汇总多个 future，全部成功后按原顺序返回结果；任一失败时立即以该异常结束并取消其余 future。
+     * 取消返回的 future 会同时取消所有 future
+     *
+     * @param futures
+     * @return
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<List<T>> result = new CompletableFuture<>();
+        int size = futures.size();
+        if (size == 0) {
+            result.complete(new ArrayList<>(0));
+            return result;
+        }
+        Object[] values = new Object[size];
+        AtomicInteger remaining = new AtomicInteger(size);
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            futures.get(i).whenComplete((v, e) -> {
+                if (e != null) {
+                    result.completeExceptionally(unwrap(e));
+                } else {
+                    values[index] = v;
+                    if (remaining.decrementAndGet() == 0) {
+                        result.complete(toList(values));
+                    }
+                }
+            });
+        }
+        result.whenComplete((v, e) -> {
+            if (e != null) {
+                futures.forEach(f -> f.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 汇总多个 future，失败或超时的结果由 fallback 替换，全部结束后按原顺序返回
+     *
+     * @param futures
+     * @param fallback 由异常得到替代结果，如返回 null 或默认值
+     * @return
+     */
+    public static <T> CompletableFuture<List<T>> allOf(List<? extends CompletableFuture<? extends T>> futures,
+                                                       Function<Throwable, ? extends T> fallback) {
+        List<CompletableFuture<T>> settled = new ArrayList<>(futures.size());
+        for (CompletableFuture<? extends T> f : futures) {
+            settled.add(f.handle((v, e) -> e == null ? v : fallback.apply(unwrap(e))));
+        }
+        CompletableFuture<List<T>> result = allOf(settled);
+        result.whenComplete((v, e) -> {
+            if (result.isCancelled()) {
+                futures.forEach(f -> f.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 取最先成功的结果并取消其余 future；全部失败时以最后一个异常结束
+     *
+     * @param futures
+     * @return
+     */
+    public static <T> CompletableFuture<T> anyOf(List<? extends CompletableFuture<? extends T>> futures) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        if (futures.isEmpty()) {
+            result.completeExceptionally(new IllegalArgumentException("futures require not empty."));
+            return result;
+        }
+        AtomicInteger remaining = new AtomicInteger(futures.size());
+        for (CompletableFuture<? extends T> f : futures) {
+            f.whenComplete((v, e) -> {
+                if (e == null) {
+                    result.complete(v);
+                } else if (remaining.decrementAndGet() == 0) {
+                    result.completeExceptionally(unwrap(e));
+                }
+            });
+        }
+        result.whenComplete((v, e) -> futures.forEach(f -> f.cancel(true)));
+        return result;
+    }
+
+    /**
+     * 连接池整体状态：租用中、空闲、等待中的数量
+     *
+     * @return
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * 关闭客户端，进行中的请求将失败
+     * <p>
+     * 当前的默认客户端由所有使用方共享，调用此方法不做任何操作；通过 {@link #setDefault(AsyncHttpClient)} 替换后方可关闭。
+     */
+    @Override
+    public void close() {
+        synchronized (AsyncHttpClient.class) {
+            if (this == defaultClient) {
+                return;
+            }
+        }
+        evictor.cancel(false);
+        try {
+            client.close();
+        } catch (IOException e) {
+            // 静默关闭
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> List<T> toList(Object[] values) {
+        List<T> list = new ArrayList<>(values.length);
+        for (Object v : values) {
+            list.add((T) v);
+        }
+        return list;
+    }
+
+    private static Throwable unwrap(Throwable e) {
+        if (e instanceof CompletionException && e.getCause() != null) {
+            return e.getCause();
+        }
+        return e;
+    }
+
+    private static ScheduledThreadPoolExecutor newTimer() {
+        ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "async-http-timer");
+            t.setDaemon(true);
+            return t;
+        });
+        timer.setRemoveOnCancelPolicy(true);
+        return timer;
+    }
+
+    public static final class Builder {
+        private int maxTotal = DEFAULT_MAX_TOTAL;
+        private int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+        private final Map<HttpHost, Integer> routeMax = new LinkedHashMap<>();
+        private int ioThreadCount = Runtime.getRuntime().availableProcessors();
+        private long maxIdleTime = DEFAULT_MAX_IDLE_MILLIS;
+        private long defaultKeepAlive = DEFAULT_KEEP_ALIVE_MILLIS;
+        private ConnectionKeepAliveStrategy keepAliveStrategy;
+        private RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setConnectionRequestTimeout(REQUEST_TIMEOUT)
+                .setSocketTimeout(SOCKET_TIMEOUT)
+                .build();
+
+        private Builder() {
+        }
+
+        /**
+         * 连接总数上限，即同时进行中的请求数上限，默认 1024
+         *
+         * @param maxTotal
+         * @return
+         */
+        public Builder setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        /**
+         * 每个路由（目标主机）的连接数上限，默认 128
+         *
+         * @param maxPerRoute
+         * @return
+         */
+        public Builder setMaxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * 单独设置某个目标主机的连接数上限
+         *
+         * @param host 目标主机，需包含端口和 scheme
+         * @param max
+         * @return
+         */
+        public Builder setMaxPerRoute(HttpHost host, int max) {
+            this.routeMax.put(host, max);
+            return this;
+        }
+
+        /**
+         * I/O 线程数，默认为 CPU 核数
+         *
+         * @param ioThreadCount
+         * @return
+         */
+        public Builder setIoThreadCount(int ioThreadCount) {
+            this.ioThreadCount = ioThreadCount;
+            return this;
+        }
+
+        /**
+         * 空闲超过该时长的连接会被关闭，默认 30 秒
+         *
+         * @param time
+         * @param unit
+         * @return
+         */
+        public Builder setMaxIdleTime(long time, TimeUnit unit) {
+            this.maxIdleTime = unit.toMillis(time);
+            return this;
+        }
+
+        /**
+         * 服务端未返回 Keep-Alive 时长时连接的保持时长，默认 30 秒；设置了 {@link #setKeepAliveStrategy} 时无效
+         *
+         * @param time
+         * @param unit
+         * @return
+         */
+        public Builder setDefaultKeepAlive(long time, TimeUnit unit) {
+            this.defaultKeepAlive = unit.toMillis(time);
+            return this;
+        }
+
+        /**
+         * 自定义 keep-alive 策略
+         *
+         * @param keepAliveStrategy
+         * @return
+         */
+        public Builder setKeepAliveStrategy(ConnectionKeepAliveStrategy keepAliveStrategy) {
+            this.keepAliveStrategy = keepAliveStrategy;
+            return this;
+        }
+
+        /**
+         * 默认请求配置，连接、获取连接、读取超时默认均为 60 秒
+         *
+         * @param requestConfig
+         * @return
+         */
+        public Builder setRequestConfig(RequestConfig requestConfig) {
+            this.requestConfig = requestConfig;
+            return this;
+        }
+
+        /**
+         * 创建并启动客户端
+         *
+         * @return
+         * @throws UncheckedIOException I/O 线程启动失败
+         */
+        public AsyncHttpClient build() {
+            try {
+                return new AsyncHttpClient(this);
+            } catch (IOReactorException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,404 @@
+package org.kerw1n.javautil.http;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HttpClient 连接池
+ * <p>
+ * 持有一个长期存在的 {@link CloseableHttpClient}，底层为 {@link PoolingHttpClientConnectionManager}，
+ * 连接在请求之间复用（keep-alive），后台线程定期关闭空闲和过期的连接。线程安全。
+ * <p>
+ * 使用方不应关闭 {@link #getClient()} 返回的 client，只需关闭响应或消费完响应体，连接即归还到池中。
+ *
+ * <pre>
+ * HttpClientPool pool = HttpClientPool.custom()
+ *         .setMaxTotal(400)
+ *         .setMaxPerRoute(50)
+ *         .setMaxPerRoute(new HttpHost("api.example.com", 443, "https"), 100)
+ *         .setMaxIdleTime(30, TimeUnit.SECONDS)
+ *         .build();
+ * </pre>
+ *
+ * @author kerw1n
+ */
+public final class HttpClientPool implements Closeable {
+
+    private static final int DEFAULT_MAX_TOTAL = 200;
+    private static final int DEFAULT_MAX_PER_ROUTE = 20;
+    private static final long DEFAULT_MAX_IDLE_MILLIS = 30000;
+    private static final long DEFAULT_KEEP_ALIVE_MILLIS = 30000;
+    private static final int DEFAULT_VALIDATE_AFTER_INACTIVITY = 2000;
+    private static final int CONNECT_TIMEOUT = 60000;
+    private static final int REQUEST_TIMEOUT = 60000;
+    private static final int SOCKET_TIMEOUT = 60000;
+
+    private static volatile HttpClientPool defaultPool;
+
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient client;
+    private final RequestConfig requestConfig;
+
+    private HttpClientPool(Builder builder) {
+        this.connectionManager = new PinnedLeaseConnectionManager(builder);
+        this.connectionManager.setValidateAfterInactivity(builder.validateAfterInactivity);
+        this.requestConfig = builder.requestConfig;
+
+        ConnectionKeepAliveStrategy keepAliveStrategy = builder.keepAliveStrategy;
+        if (keepAliveStrategy == null) {
+            keepAliveStrategy = keepAliveOrDefault(builder.defaultKeepAlive);
+        }
+        this.client = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(keepAliveStrategy)
+                .evictExpiredConnections()
+                .evictIdleConnections(builder.maxIdleTime, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * 服务端未通过 Keep-Alive 响应头给出时长时，使用默认时长，避免复用已被服务端关闭的连接
+     */
+    static ConnectionKeepAliveStrategy keepAliveOrDefault(long defaultKeepAlive) {
+        return (response, context) -> {
+            long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return duration > 0 ? duration : defaultKeepAlive;
+        };
+    }
+
+    /**
+     * 获取默认连接池，首次使用时按默认配置创建；默认连接池不能关闭
+     *
+     * @return
+     */
+    public static HttpClientPool getDefault() {
+        HttpClientPool pool = defaultPool;
+        if (pool == null) {
+            synchronized (HttpClientPool.class) {
+                pool = defaultPool;
+                if (pool == null) {
+                    pool = custom().build();
+                    defaultPool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 替换默认连接池，原连接池不会被关闭，不再使用时可由调用方关闭
+     *
+     * @param pool 新的默认连接池
+     * @return 原默认连接池，可能为 null
+     */
+    public static HttpClientPool setDefault(HttpClientPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool require not null.");
+        }
+        synchronized (HttpClientPool.class) {
+            HttpClientPool old = defaultPool;
+            defaultPool = pool;
+            return old;
+        }
+    }
+
+    /**
+     * 自定义连接池
+     *
+     * @return
+     */
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    /**
+     * 共享的 HttpClient，不要关闭
+     *
+     * @return
+     */
+    public CloseableHttpClient getClient() {
+        return client;
+    }
+
+    /**
+     * 默认请求配置
+     *
+     * @return
+     */
+    public RequestConfig getRequestConfig() {
+        return requestConfig;
+    }
+
+    /**
+     * 连接池整体状态：租用中、空闲、等待中的数量
+     *
+     * @return
+     */
+    public PoolStats getTotalStats() {
+        return connectionManager.getTotalStats();
+    }
+
+    /**
+     * 关闭 client 及池中所有连接，并停止后台清理线程
+     * <p>
+     * 当前的默认连接池由所有使用方共享，调用此方法不做任何操作；通过 {@link #setDefault(HttpClientPool)} 替换后方可关闭。
+     */
+    @Override
+    public void close() {
+        synchronized (HttpClientPool.class) {
+            if (this == defaultPool) {
+                return;
+            }
+        }
+        try {
+            client.close();
+        } catch (IOException e) {
+            // 静默关闭
+        }
+        connectionManager.shutdown();
+    }
+
+    /**
+     * 获取连接时固定当前线程，以便在虚拟线程上使用
+     * <p>
+     * HttpClient 4.x 归还连接时在 synchronized 块中等待池锁，JDK 21 ~ 23 上虚拟线程在 synchronized 中等待不会让出载体线程；
+     * 而获取连接时虚拟线程等待池锁会让出载体线程。当载体线程全部被归还方占用、池锁又交给了已让出的获取方时，
+     * 获取方再也得不到载体线程，形成死锁。获取连接时同样在 synchronized 中等待，池锁的等待方便都持有载体线程。
+     * <p>
+     * 固定期间只能短暂等待池锁，不能等待池中的空闲连接，否则等待连接的虚拟线程会占满载体线程，归还方无法运行。
+     * 因此先在 synchronized 之外按路由和总数获取许可，许可数与连接池上限一致，进入池内时必有可用的连接名额。
+     * 许可在连接归还后释放。JDK 24 起 synchronized 不再固定载体线程，固定已无必要，许可只多一次无竞争的获取。
+     */
+    private static final class PinnedLeaseConnectionManager extends PoolingHttpClientConnectionManager {
+
+        private final Semaphore total;
+        /**
+         * 每个路由的许可，路由数量通常有限，不做淘汰，以免正在使用的许可被替换
+         */
+        private final Map<HttpRoute, Semaphore> routePermits = new ConcurrentHashMap<>();
+        /**
+         * 租用中的连接及其路由许可
+         */
+        private final Map<HttpClientConnection, Semaphore> leased = new ConcurrentHashMap<>();
+
+        PinnedLeaseConnectionManager(Builder builder) {
+            super(builder.timeToLive, TimeUnit.MILLISECONDS);
+            setMaxTotal(builder.maxTotal);
+            setDefaultMaxPerRoute(builder.maxPerRoute);
+            builder.routeMax.forEach((host, max) -> setMaxPerRoute(
+                    new HttpRoute(host, null, "https".equalsIgnoreCase(host.getSchemeName())), max));
+            this.total = new Semaphore(builder.maxTotal);
+        }
+
+        @Override
+        public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+            ConnectionRequest request = super.requestConnection(route, state);
+            return new ConnectionRequest() {
+                @Override
+                public HttpClientConnection get(long timeout, TimeUnit tunit)
+                        throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+                    Semaphore perRoute = routePermits.computeIfAbsent(route, r -> new Semaphore(getMaxPerRoute(r)));
+                    long deadline = timeout > 0 ? System.nanoTime() + tunit.toNanos(timeout) : 0;
+                    acquire(perRoute, deadline);
+                    boolean done = false;
+                    try {
+                        acquire(total, deadline);
+                        try {
+                            HttpClientConnection conn;
+                            synchronized (this) {
+                                conn = request.get(timeout, tunit);
+                            }
+                            leased.put(conn, perRoute);
+                            done = true;
+                            return conn;
+                        } finally {
+                            if (!done) {
+                                total.release();
+                            }
+                        }
+                    } finally {
+                        if (!done) {
+                            perRoute.release();
+                        }
+                    }
+                }
+
+                @Override
+                public boolean cancel() {
+                    return request.cancel();
+                }
+            };
+        }
+
+        @Override
+        public void releaseConnection(HttpClientConnection managedConn, Object state, long keepalive, TimeUnit tunit) {
+            try {
+                super.releaseConnection(managedConn, state, keepalive, tunit);
+            } finally {
+                Semaphore perRoute = leased.remove(managedConn);
+                if (perRoute != null) {
+                    total.release();
+                    perRoute.release();
+                }
+            }
+        }
+
+        /**
+         * @param deadline 截止时间（{@link System#nanoTime()}），0 表示不限时
+         */
+        private static void acquire(Semaphore semaphore, long deadline)
+                throws InterruptedException, ConnectionPoolTimeoutException {
+            if (deadline == 0) {
+                semaphore.acquire();
+            } else if (!semaphore.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                throw new ConnectionPoolTimeoutException("Timeout waiting for connection from pool");
+            }
+        }
+    }
+
+    public static final class Builder {
+        private int maxTotal = DEFAULT_MAX_TOTAL;
+        private int maxPerRoute = DEFAULT_MAX_PER_ROUTE;
+        private final Map<HttpHost, Integer> routeMax = new LinkedHashMap<>();
+        private long maxIdleTime = DEFAULT_MAX_IDLE_MILLIS;
+        private long timeToLive = -1;
+        private int validateAfterInactivity = DEFAULT_VALIDATE_AFTER_INACTIVITY;
+        private long defaultKeepAlive = DEFAULT_KEEP_ALIVE_MILLIS;
+        private ConnectionKeepAliveStrategy keepAliveStrategy;
+        private RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setConnectionRequestTimeout(REQUEST_TIMEOUT)
+                .setSocketTimeout(SOCKET_TIMEOUT)
+                .build();
+
+        private Builder() {
+        }
+
+        /**
+         * 连接总数上限，默认 200
+         *
+         * @param maxTotal
+         * @return
+         */
+        public Builder setMaxTotal(int maxTotal) {
+            this.maxTotal = maxTotal;
+            return this;
+        }
+
+        /**
+         * 每个路由（目标主机）的连接数上限，默认 20
+         *
+         * @param maxPerRoute
+         * @return
+         */
+        public Builder setMaxPerRoute(int maxPerRoute) {
+            this.maxPerRoute = maxPerRoute;
+            return this;
+        }
+
+        /**
+         * 单独设置某个目标主机的连接数上限
+         *
+         * @param host 目标主机，需包含端口和 scheme
+         * @param max
+         * @return
+         */
+        public Builder setMaxPerRoute(HttpHost host, int max) {
+            this.routeMax.put(host, max);
+            return this;
+        }
+
+        /**
+         * 空闲超过该时长的连接会被后台线程关闭，默认 30 秒
+         *
+         * @param time
+         * @param unit
+         * @return
+         */
+        public Builder setMaxIdleTime(long time, TimeUnit unit) {
+            this.maxIdleTime = unit.toMillis(time);
+            return this;
+        }
+
+        /**
+         * 连接的最长存活时间，无论是否空闲，默认不限制
+         *
+         * @param time
+         * @param unit
+         * @return
+         */
+        public Builder setTimeToLive(long time, TimeUnit unit) {
+            this.timeToLive = unit.toMillis(time);
+            return this;
+        }
+
+        /**
+         * 连接空闲超过该毫秒数后，租用前先检查是否可用，默认 2000
+         *
+         * @param millis
+         * @return
+         */
+        public Builder setValidateAfterInactivity(int millis) {
+            this.validateAfterInactivity = millis;
+            return this;
+        }
+
+        /**
+         * 服务端未返回 Keep-Alive 时长时连接的保持时长，默认 30 秒；设置了 {@link #setKeepAliveStrategy} 时无效
+         *
+         * @param time
+         * @param unit
+         * @return
+         */
+        public Builder setDefaultKeepAlive(long time, TimeUnit unit) {
+            this.defaultKeepAlive = unit.toMillis(time);
+            return this;
+        }
+
+        /**
+         * 自定义 keep-alive 策略
+         *
+         * @param keepAliveStrategy
+         * @return
+         */
+        public Builder setKeepAliveStrategy(ConnectionKeepAliveStrategy keepAliveStrategy) {
+            this.keepAliveStrategy = keepAliveStrategy;
+            return this;
+        }
+
+        /**
+         * 默认请求配置，连接、获取连接、读取超时默认均为 60 秒
+         *
+         * @param requestConfig
+         * @return
+         */
+        public Builder setRequestConfig(RequestConfig requestConfig) {
+            this.requestConfig = requestConfig;
+            return this;
+        }
+
+        public HttpClientPool build() {
+            return new HttpClientPool(this);
+        }
+    }
+}
@@ -4,14 +4,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
 import org.apache.http.HttpStatus;
 import org.apache.http.NameValuePair;
-import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.BasicNameValuePair;
 import org.apache.http.util.EntityUtils;
@@ -29,6 +27,10 @@ import java.util.*;
 
 /**
  * HttpClient 工具类
+ * <p>
+ * 所有请求共用 {@link HttpClientPool#getDefault()} 的连接池，连接在请求之间复用。
+ * <p>
+ * 实例为单例，请求头、参数等保存在实例中且不会清空，非线程安全；并发调用请使用不可变的 {@link HttpRequestBuilder}。
  *
  * <li>
  * {@link #getInstance()} - 获取 HttpClientUtil 实例
@@ -55,18 +57,6 @@ public class HttpClientUtil {
     private Map<String, String> header;
     private Map<String, String> param;
     private Charset charset = BaseConst.CHARSET_UTF8;
-    private static final int CONNECT_TIMEOUT = 60000;
-    private static final int REQUEST_TIMEOUT = 60000;
-    private static final int SOCKET_TIMEOUT = 60000;
-
-    /**
-     * 请求参数配置
-     */
-    private static final RequestConfig REQUEST_CONFIG = RequestConfig.custom()
-            .setConnectTimeout(CONNECT_TIMEOUT)
-            .setConnectionRequestTimeout(REQUEST_TIMEOUT)
-            .setSocketTimeout(SOCKET_TIMEOUT)
-            .build();
 
     /**
      * 获取 HttpClientUtil 实例
@@ -158,7 +148,7 @@ public class HttpClientUtil {
     }
 
     public HttpClientRequest get(String url) {
-        requestBuilder = RequestBuilder.get(url).setConfig(REQUEST_CONFIG);
+        requestBuilder = RequestBuilder.get(url);
         if (this.param != null) {
             this.param.forEach((k, v) -> requestBuilder.addParameter(k, v));
         }
@@ -166,12 +156,12 @@ public class HttpClientUtil {
     }
 
     public HttpClientRequest delete(String url) {
-        requestBuilder = RequestBuilder.delete(url).setConfig(REQUEST_CONFIG);
+        requestBuilder = RequestBuilder.delete(url);
         return new HttpClientRequest();
     }
 
     public HttpClientRequest put(String url) {
-        requestBuilder = RequestBuilder.put(url).setConfig(REQUEST_CONFIG);
+        requestBuilder = RequestBuilder.put(url);
         return new HttpClientRequest();
     }
 
@@ -190,7 +180,7 @@ public class HttpClientUtil {
     }
 
     private HttpClientRequest post(String url, HttpEntity httpEntity) {
-        this.requestBuilder = RequestBuilder.post(url).setConfig(REQUEST_CONFIG);
+        this.requestBuilder = RequestBuilder.post(url);
         if (httpEntity != null) {
             this.requestBuilder.setEntity(httpEntity);
             this.contentType = this.requestBuilder.getEntity().getContentType().getValue();
@@ -217,7 +207,7 @@ public class HttpClientUtil {
         }
 
         private void request() {
-            CloseableHttpClient httpClient = HttpClients.createDefault();
+            CloseableHttpClient httpClient = HttpClientPool.getDefault().getClient();
             HttpUriRequest request = requestBuilder.build();
 
             URI uri = request.getURI();
@@ -232,7 +222,8 @@ public class HttpClientUtil {
             } catch (IOException e) {
                 e.printStackTrace();
             } finally {
-                IoUtil.close(response, httpClient);
+                // 只关闭响应，连接归还到池中复用
+                IoUtil.close(response);
             }
         }
 
@@ -247,6 +238,8 @@ public class HttpClientUtil {
         if (statusCode == HttpStatus.SC_OK) {
             return EntityUtils.toString(response.getEntity(), BaseConst.CHARSET_UTF8);
         }
+        // 未读完的响应体会导致连接无法复用
+        EntityUtils.consume(response.getEntity());
         return "";
     }
 
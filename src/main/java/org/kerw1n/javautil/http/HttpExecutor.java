@@ -0,0 +1,246 @@
+package org.kerw1n.javautil.http;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.Closeable;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 阻塞式 HTTP 调用的执行器
+ * <p>
+ * 将 {@link HttpRequestBuilder}、{@link RestClientUtil} 等阻塞调用放到独立线程上执行并返回 {@link CompletableFuture}，
+ * 调用方无需改写为异步代码即可并发发起大量请求。运行在 JDK 21 及以上时可使用虚拟线程，每个请求一个虚拟线程，
+ * 阻塞在网络 I/O 上时不占用平台线程；更低版本自动退回到平台线程。
+ * <p>
+ * 每个目标主机（scheme + host + port）的并发数由信号量限制，超出的请求在自己的线程中等待，不占用连接。
+ * 该上限应不大于连接池的每路由连接数（{@link HttpClientPool.Builder#setMaxPerRoute(int)}），否则多出的请求会阻塞在获取连接上。
+ * 取消返回的 future 不会中断已开始的请求。线程安全。
+ *
+ * <pre>
+ * HttpExecutor executor = HttpExecutor.virtualThreads(20);
+ * CompletableFuture&lt;String&gt; a = executor.submit(HttpRequestBuilder.get(urlA));
+ * CompletableFuture&lt;String&gt; b = executor.submit(urlB, () -&gt; RestClientUtil.create().get(urlB));
+ * </pre>
+ *
+ * @author kerw1n
+ */
+public final class HttpExecutor implements Closeable {
+
+    private static final int DEFAULT_MAX_PER_HOST = 20;
+
+    private static volatile HttpExecutor defaultExecutor;
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int maxPerHost;
+    /**
+     * 每个目标主机的并发许可，主机数量通常有限，不做淘汰，以免正在使用的许可被替换
+     */
+    private final Map<String, Semaphore> permits = new ConcurrentHashMap<>();
+
+    private HttpExecutor(ExecutorService executor, boolean virtual, int maxPerHost) {
+        if (maxPerHost <= 0) {
+            throw new IllegalArgumentException("maxPerHost must be positive.");
+        }
+        this.executor = executor;
+        this.virtual = virtual;
+        this.maxPerHost = maxPerHost;
+    }
+
+    /**
+     * 默认执行器：虚拟线程可用时使用虚拟线程，否则使用按需创建的平台线程；每个主机并发 20，与默认连接池一致
+     *
+     * @return
+     */
+    public static HttpExecutor getDefault() {
+        HttpExecutor e = defaultExecutor;
+        if (e == null) {
+            synchronized (HttpExecutor.class) {
+                e = defaultExecutor;
+                if (e == null) {
+                    e = virtualThreads(DEFAULT_MAX_PER_HOST);
+                    defaultExecutor = e;
+                }
+            }
+        }
+        return e;
+    }
+
+    /**
+     * 每个请求一个虚拟线程；当前 JDK 不支持虚拟线程时退回到按需创建的平台线程
+     *
+     * @param maxPerHost 每个目标主机的并发上限
+     * @return
+     */
+    public static HttpExecutor virtualThreads(int maxPerHost) {
+        ExecutorService vt = VirtualThreads.newExecutor();
+        if (vt != null) {
+            return new HttpExecutor(vt, true, maxPerHost);
+        }
+        return new HttpExecutor(Executors.newCachedThreadPool(daemonFactory()), false, maxPerHost);
+    }
+
+    /**
+     * 固定数量的平台线程
+     *
+     * @param threads    线程数，等待并发许可的请求同样占用线程，应不小于各主机并发上限之和
+     * @param maxPerHost 每个目标主机的并发上限
+     * @return
+     */
+    public static HttpExecutor platformThreads(int threads, int maxPerHost) {
+        return new HttpExecutor(Executors.newFixedThreadPool(threads, daemonFactory()), false, maxPerHost);
+    }
+
+    /**
+     * 当前 JDK 是否支持虚拟线程
+     *
+     * @return
+     */
+    public static boolean isVirtualThreadSupported() {
+        return VirtualThreads.SUPPORTED;
+    }
+
+    /**
+     * 是否运行在虚拟线程上
+     *
+     * @return
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    public int getMaxPerHost() {
+        return maxPerHost;
+    }
+
+    /**
+     * 执行请求
+     *
+     * @param request
+     * @return 状态码为 200 时为响应内容，否则为空字符串
+     */
+    public CompletableFuture<String> submit(HttpRequestBuilder request) {
+        return submit(request.getUrl(), request::execute);
+    }
+
+    /**
+     * 执行阻塞调用，按 url 的目标主机限制并发
+     *
+     * @param url  调用的目标地址，用于确定主机
+     * @param call 阻塞调用，如 {@code () -> RestClientUtil.create().get(url)}
+     * @return 调用结果；调用抛出的异常使 future 以该异常结束
+     */
+    public <T> CompletableFuture<T> submit(String url, Callable<T> call) {
+        Semaphore semaphore = permits.computeIfAbsent(hostOf(url), k -> new Semaphore(maxPerHost));
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    semaphore.acquire();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    result.completeExceptionally(e);
+                    return;
+                }
+                try {
+                    if (!result.isDone()) {
+                        result.complete(call.call());
+                    }
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    semaphore.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * 某个主机当前可用的并发许可数
+     *
+     * @param url 目标地址
+     * @return
+     */
+    public int availablePermits(String url) {
+        Semaphore semaphore = permits.get(hostOf(url));
+        return semaphore == null ? maxPerHost : semaphore.availablePermits();
+    }
+
+    /**
+     * 不再接受新的请求，已提交的请求继续执行
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private static String hostOf(String url) {
+        URI uri = URI.create(url);
+        String scheme = StringUtils.defaultString(uri.getScheme(), "http").toLowerCase();
+        int port = uri.getPort();
+        if (port < 0) {
+            port = "https".equals(scheme) ? 443 : 80;
+        }
+        return scheme + "://" + StringUtils.defaultString(uri.getHost()).toLowerCase() + ":" + port;
+    }
+
+    private static ThreadFactory daemonFactory() {
+        AtomicInteger seq = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "http-executor-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    /**
+     * 通过反射使用 JDK 21 的虚拟线程，源码仍可在低版本 JDK 上编译运行
+     */
+    private static class VirtualThreads {
+        static final Method NEW_EXECUTOR = find();
+        static final boolean SUPPORTED = probe();
+
+        private static Method find() {
+            try {
+                return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+
+        private static boolean probe() {
+            ExecutorService e = newExecutor();
+            if (e == null) {
+                return false;
+            }
+            e.shutdown();
+            return true;
+        }
+
+        static ExecutorService newExecutor() {
+            if (NEW_EXECUTOR == null) {
+                return null;
+            }
+            try {
+                return (ExecutorService) NEW_EXECUTOR.invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // 如 JDK 19/20 未开启 --enable-preview
+                return null;
+            }
+        }
+    }
+}
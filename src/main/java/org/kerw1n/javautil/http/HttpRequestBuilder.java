@@ -0,0 +1,466 @@
+package org.kerw1n.javautil.http;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.NameValuePair;
+import org.apache.http.StatusLine;
+import org.apache.http.client.HttpResponseException;
+import org.apache.http.client.ResponseHandler;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.entity.UrlEncodedFormEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.message.BasicNameValuePair;
+import org.apache.http.util.EntityUtils;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.ObjectReader;
+import org.kerw1n.javautil.constant.BaseConst;
+import org.kerw1n.javautil.file.IoUtil;
+import org.kerw1n.javautil.format.ObjectUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 不可变的 HTTP 请求构建器
+ * <p>
+ * 每次设置都返回新的实例，原实例不变，因此配置好的请求（如公共请求头）可作为模板在多个线程间共享，
+ * 各线程在其基础上添加参数后执行，互不影响。执行时使用 {@link HttpClientPool} 中共享的 client，连接在请求之间复用。
+ *
+ * <pre>
+ * HttpRequestBuilder base = HttpRequestBuilder.get("http://api.example.com/users").header("token", token);
+ * String body = base.param("id", "1").execute();
+ * </pre>
+ *
+ * <li>
+ * {@link #get(String)} - GET 请求，参数拼接到 URL
+ * {@link #delete(String)} - DELETE 请求，参数拼接到 URL
+ * {@link #post(String)} - POST 请求，参数作为表单提交，设置了 body 时提交 body
+ * {@link #put(String)} - PUT 请求，同 POST
+ * {@link #execute()} - 执行，返回响应内容
+ * {@link #execute(ResponseHandler)} - 执行，自定义响应处理
+ * {@link #executeAsync(long, TimeUnit)} - 异步执行
+ * {@link #executeForStream(StreamHandler)} - 执行，以输入流处理响应体
+ * {@link #executeForChannel(ChannelHandler)} - 执行，以通道处理响应体
+ * {@link #download(Path)} - 下载到文件
+ * {@link #executeForJson(JsonHandler)} - 执行，以 JSON token 流处理响应体
+ * {@link #forEachJson(Class, Consumer)} - 逐个处理响应中的 JSON 元素
+ * </li>
+ *
+ * @author kerw1n
+ */
+public final class HttpRequestBuilder {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpRequestBuilder.class);
+
+    /**
+     * 状态码为 200 时返回响应内容，否则消费掉响应体并返回空字符串
+     */
+    static final ResponseHandler<String> BODY_IF_OK = response -> {
+        HttpEntity body = response.getEntity();
+        if (response.getStatusLine().getStatusCode() == HttpStatus.SC_OK) {
+            return body == null ? "" : EntityUtils.toString(body, BaseConst.CHARSET_UTF8);
+        }
+        EntityUtils.consume(body);
+        return "";
+    };
+
+    private final String method;
+    private final String url;
+    private final Map<String, String> headers;
+    private final Map<String, String> params;
+    private final HttpEntity entity;
+    private final String contentType;
+    private final Charset charset;
+    private final RequestConfig config;
+    private final HttpClientPool pool;
+
+    private HttpRequestBuilder(String method, String url, Map<String, String> headers, Map<String, String> params,
+                        HttpEntity entity, String contentType, Charset charset, RequestConfig config, HttpClientPool pool) {
+        this.method = method;
+        this.url = url;
+        this.headers = headers;
+        this.params = params;
+        this.entity = entity;
+        this.contentType = contentType;
+        this.charset = charset;
+        this.config = config;
+        this.pool = pool;
+    }
+
+    private static HttpRequestBuilder of(String method, String url) {
+        if (StringUtils.isEmpty(url)) {
+            throw new IllegalArgumentException("url require not empty.");
+        }
+        return new HttpRequestBuilder(method, url, Collections.emptyMap(), Collections.emptyMap(),
+                null, null, BaseConst.CHARSET_UTF8, null, null);
+    }
+
+    public static HttpRequestBuilder get(String url) {
+        return of("GET", url);
+    }
+
+    public static HttpRequestBuilder delete(String url) {
+        return of("DELETE", url);
+    }
+
+    public static HttpRequestBuilder post(String url) {
+        return of("POST", url);
+    }
+
+    public static HttpRequestBuilder put(String url) {
+        return of("PUT", url);
+    }
+
+    /**
+     * 添加请求头，同名覆盖
+     *
+     * @param key
+     * @param value
+     * @return 新的请求
+     */
+    public HttpRequestBuilder header(String key, String value) {
+        return new HttpRequestBuilder(method, url, with(headers, key, value), params, entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 添加请求头，同名覆盖
+     *
+     * @param headers
+     * @return 新的请求
+     */
+    public HttpRequestBuilder headers(Map<String, String> headers) {
+        return new HttpRequestBuilder(method, url, with(this.headers, headers), params, entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 添加参数，同名覆盖
+     *
+     * @param key
+     * @param value
+     * @return 新的请求
+     */
+    public HttpRequestBuilder param(String key, String value) {
+        return new HttpRequestBuilder(method, url, headers, with(params, key, value), entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 添加参数，同名覆盖
+     *
+     * @param params
+     * @return 新的请求
+     */
+    public HttpRequestBuilder params(Map<String, String> params) {
+        return new HttpRequestBuilder(method, url, headers, with(this.params, params), entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 请求体，媒体类型默认为 application/json；设置后 POST/PUT 的参数拼接到 URL
+     *
+     * @param body
+     * @return 新的请求
+     */
+    public HttpRequestBuilder body(String body) {
+        HttpEntity json = new StringEntity(body, ContentType.APPLICATION_JSON.withCharset(charset));
+        return new HttpRequestBuilder(method, url, headers, params, json, contentType, charset, config, pool);
+    }
+
+    /**
+     * 自定义请求体；设置后 POST/PUT 的参数拼接到 URL。请求需在线程间共享时，entity 应可重复读取（{@link HttpEntity#isRepeatable()}）
+     *
+     * @param entity
+     * @return 新的请求
+     */
+    public HttpRequestBuilder entity(HttpEntity entity) {
+        return new HttpRequestBuilder(method, url, headers, params, entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 媒体类型，覆盖请求体自带的类型
+     *
+     * @param contentType
+     * @return 新的请求
+     */
+    public HttpRequestBuilder contentType(String contentType) {
+        return new HttpRequestBuilder(method, url, headers, params, entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 参数及字符串请求体的字符集，默认 UTF-8，需在 {@link #body(String)} 之前设置
+     *
+     * @param charset
+     * @return 新的请求
+     */
+    public HttpRequestBuilder charset(Charset charset) {
+        return new HttpRequestBuilder(method, url, headers, params, entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 本次请求的超时等配置，默认使用连接池的配置
+     *
+     * @param config
+     * @return 新的请求
+     */
+    public HttpRequestBuilder config(RequestConfig config) {
+        return new HttpRequestBuilder(method, url, headers, params, entity, contentType, charset, config, pool);
+    }
+
+    /**
+     * 执行请求的连接池，默认使用 {@link HttpClientPool#getDefault()}
+     *
+     * @param pool
+     * @return 新的请求
+     */
+    public HttpRequestBuilder pool(HttpClientPool pool) {
+        return new HttpRequestBuilder(method, url, headers, params, entity, contentType, charset, config, pool);
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * 构建 HttpClient 请求，每次调用返回新的对象
+     *
+     * @return
+     */
+    public HttpUriRequest build() {
+        RequestBuilder builder = RequestBuilder.create(method).setUri(url).setCharset(charset);
+        if (config != null) {
+            builder.setConfig(config);
+        }
+        boolean form = entity == null && !params.isEmpty() && ("POST".equals(method) || "PUT".equals(method));
+        if (form) {
+            List<NameValuePair> pairs = new ArrayList<>(params.size());
+            params.forEach((k, v) -> pairs.add(new BasicNameValuePair(k, v)));
+            builder.setEntity(new UrlEncodedFormEntity(pairs, charset));
+        } else {
+            params.forEach(builder::addParameter);
+            if (entity != null) {
+                builder.setEntity(entity);
+            }
+        }
+        headers.forEach(builder::addHeader);
+        if (StringUtils.isNotEmpty(contentType)) {
+            builder.addHeader(HttpHeaders.CONTENT_TYPE, contentType);
+        }
+        return builder.build();
+    }
+
+    /**
+     * 执行请求
+     *
+     * @return 状态码为 200 时返回响应内容，否则返回空字符串
+     * @throws IOException 请求异常
+     */
+    public String execute() throws IOException {
+        return execute(BODY_IF_OK);
+    }
+
+    /**
+     * 执行请求，响应处理完成后连接归还到连接池
+     *
+     * @param handler 响应处理
+     * @return 处理结果
+     * @throws IOException 请求异常
+     */
+    public <T> T execute(ResponseHandler<? extends T> handler) throws IOException {
+        HttpUriRequest request = build();
+        URI uri = request.getURI();
+        LOG.info(uri.getScheme().toUpperCase() + " " + request.getMethod() + " " + uri);
+        HttpClientPool p = pool != null ? pool : HttpClientPool.getDefault();
+        return p.getClient().execute(request, response -> {
+            LOG.info("Response {}", response.getStatusLine());
+            return handler.handleResponse(response);
+        });
+    }
+
+    /**
+     * 执行请求，以输入流的形式处理响应体，内容不会整体读入内存
+     * <p>
+     * 处理函数读完响应体后连接归还到连接池；未读完即返回时断开连接，剩余内容不再读取。
+     *
+     * @param handler 响应体处理，输入流在返回后失效
+     * @return 处理结果
+     * @throws HttpResponseException 状态码不是 2xx
+     * @throws IOException           请求异常
+     */
+    public <T> T executeForStream(StreamHandler<T> handler) throws IOException {
+        HttpUriRequest request = build();
+        URI uri = request.getURI();
+        LOG.info(uri.getScheme().toUpperCase() + " " + request.getMethod() + " " + uri);
+        HttpClientPool p = pool != null ? pool : HttpClientPool.getDefault();
+        // 关闭响应时，已读完的连接已归还，未读完的连接被断开
+        try (CloseableHttpResponse response = p.getClient().execute(request)) {
+            StatusLine status = response.getStatusLine();
+            LOG.info("Response {}", status);
+            HttpEntity body = response.getEntity();
+            if (status.getStatusCode() < HttpStatus.SC_OK || status.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
+                EntityUtils.consume(body);
+                throw new HttpResponseException(status.getStatusCode(), status.getReasonPhrase());
+            }
+            InputStream in = body == null ? new ByteArrayInputStream(new byte[0]) : body.getContent();
+            // 处理函数关闭流时 HttpClient 会读完剩余内容，这里屏蔽 close，由关闭响应决定归还或断开
+            return handler.handle(new NonClosingInputStream(in));
+        }
+    }
+
+    /**
+     * 执行请求，以通道的形式处理响应体，内容不会整体读入内存
+     *
+     * @param handler 响应体处理，通道在返回后失效
+     * @return 处理结果
+     * @throws HttpResponseException 状态码不是 2xx
+     * @throws IOException           请求异常
+     * @see #executeForStream(StreamHandler)
+     */
+    public <T> T executeForChannel(ChannelHandler<T> handler) throws IOException {
+        return executeForStream(in -> handler.handle(Channels.newChannel(in)));
+    }
+
+    /**
+     * 下载响应体到文件，通过 {@link java.nio.channels.FileChannel#transferFrom} 写入，内容不会整体读入内存
+     *
+     * @param target 目标文件，已存在时在下载完成后整体替换；下载失败时保持不变
+     * @return 文件大小
+     * @throws HttpResponseException 状态码不是 2xx
+     * @throws IOException           请求或写入异常
+     */
+    public long download(Path target) throws IOException {
+        return executeForChannel(body -> IoUtil.transferTo(body, target));
+    }
+
+    /**
+     * 执行请求，以 JSON token 流的形式处理响应体，边读取边解析
+     *
+     * @param handler 处理函数，通过 {@link JsonParser#nextToken()} 逐个读取 token
+     * @return 处理结果
+     * @throws HttpResponseException 状态码不是 2xx
+     * @throws IOException           请求或解析异常
+     */
+    public <T> T executeForJson(JsonHandler<T> handler) throws IOException {
+        return executeForStream(in -> {
+            try (JsonParser parser = ObjectUtil.getMapper().getJsonFactory().createJsonParser(in)) {
+                return handler.handle(parser);
+            }
+        });
+    }
+
+    /**
+     * 逐个解析响应中的 JSON 元素，同一时刻只有一个元素在内存中
+     *
+     * @param type   元素类型
+     * @param action 处理每个元素
+     * @return 元素个数；响应体为数组时为数组长度，为单个对象时为 1，为空时为 0
+     * @throws HttpResponseException 状态码不是 2xx
+     * @throws IOException           请求或解析异常
+     */
+    public <E> long forEachJson(Class<E> type, Consumer<? super E> action) throws IOException {
+        ObjectReader reader = ObjectUtil.getReader(type);
+        return executeForJson(parser -> {
+            JsonToken token = parser.nextToken();
+            if (token == null) {
+                return 0L;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                action.accept(reader.readValue(parser));
+                return 1L;
+            }
+            long count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                action.accept(reader.readValue(parser));
+                count++;
+            }
+            return count;
+        });
+    }
+
+    /**
+     * 通过 {@link AsyncHttpClient#getDefault()} 异步执行，调用线程不阻塞
+     *
+     * @param timeout 整体时限，不大于 0 时不限制
+     * @param unit
+     * @return 状态码为 200 时为响应内容，否则为空字符串；取消时中止请求
+     */
+    public CompletableFuture<String> executeAsync(long timeout, TimeUnit unit) {
+        return AsyncHttpClient.getDefault().execute(this, timeout, unit);
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+
+    /**
+     * 响应体输入流处理
+     */
+    @FunctionalInterface
+    public interface StreamHandler<T> {
+        T handle(InputStream body) throws IOException;
+    }
+
+    /**
+     * 响应体通道处理
+     */
+    @FunctionalInterface
+    public interface ChannelHandler<T> {
+        T handle(ReadableByteChannel body) throws IOException;
+    }
+
+    /**
+     * 响应体 JSON token 流处理
+     */
+    @FunctionalInterface
+    public interface JsonHandler<T> {
+        T handle(JsonParser parser) throws IOException;
+    }
+
+    private static class NonClosingInputStream extends FilterInputStream {
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static Map<String, String> with(Map<String, String> map, String key, String value) {
+        Map<String, String> copy = new LinkedHashMap<>(map);
+        copy.put(key, value);
+        return Collections.unmodifiableMap(copy);
+    }
+
+    private static Map<String, String> with(Map<String, String> map, Map<String, String> more) {
+        Map<String, String> copy = new LinkedHashMap<>(map);
+        copy.putAll(more);
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -4,6 +4,7 @@ import com.alibaba.fastjson.JSON;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.kerw1n.javautil.constant.BaseConst;
+import org.kerw1n.javautil.file.IoUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
@@ -17,10 +18,13 @@ import java.io.IOException;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.channels.Channels;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * RestTemplate 远程调用工具类
@@ -32,7 +36,6 @@ import java.util.Map;
 public final class RestClientUtil {
     private static final Logger LOG = LoggerFactory.getLogger(RestClientUtil.class);
 
-    private HttpEntity httpEntity;
     private HttpHeaders httpHeaders;
     private String contentType;
     private Map<String, String> param;
@@ -71,8 +74,7 @@ public final class RestClientUtil {
      * @return
      */
     public <T> T post(String url, Class<T> responseType) {
-        this.build();
-        return getInstance().postForObject(url, httpEntity, responseType);
+        return getInstance().postForObject(url, build(), responseType);
     }
 
     /**
@@ -93,19 +95,94 @@ public final class RestClientUtil {
      * @return
      */
     public <T> T get(String url, Class<T> responseType) {
-        this.build();
+        HttpEntity<?> entity = build();
         URI uri = null;
         try {
-            URIBuilder builder = new URIBuilder(url);
-            if (this.param != null) {
-                this.param.forEach((k, v) -> builder.addParameter(k, v));
-            }
-            uri = builder.build();
+            uri = buildUri(url);
         } catch (URISyntaxException e) {
             e.printStackTrace();
             return null;
         }
-        return getInstance().exchange(uri, HttpMethod.GET, httpEntity, responseType).getBody();
+        return getInstance().exchange(uri, HttpMethod.GET, entity, responseType).getBody();
+    }
+
+    /**
+     * get 请求，以输入流的形式处理响应体，内容不会整体读入内存
+     *
+     * @param url     请求地址，参数拼接到 URL
+     * @param handler 响应体处理，输入流在返回后失效
+     * @return 处理结果
+     */
+    public <T> T get(String url, HttpRequestBuilder.StreamHandler<T> handler) {
+        URI uri;
+        try {
+            uri = buildUri(url);
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException(e);
+        }
+        HttpHeaders headers = this.httpHeaders;
+        return getInstance().execute(uri, HttpMethod.GET, request -> {
+            if (headers != null) {
+                request.getHeaders().putAll(headers);
+            }
+        }, response -> handler.handle(response.getBody()));
+    }
+
+    /**
+     * get 请求，下载响应体到文件，内容不会整体读入内存
+     *
+     * @param url    请求地址，参数拼接到 URL
+     * @param target 目标文件，已存在时在下载完成后整体替换；下载失败时保持不变
+     * @return 文件大小
+     */
+    public long download(String url, Path target) {
+        Long size = get(url, body -> IoUtil.transferTo(Channels.newChannel(body), target));
+        return size == null ? 0 : size;
+    }
+
+    private URI buildUri(String url) throws URISyntaxException {
+        URIBuilder builder = new URIBuilder(url);
+        if (this.param != null) {
+            this.param.forEach((k, v) -> builder.addParameter(k, v));
+        }
+        return builder.build();
+    }
+
+    /**
+     * 在执行器上发起 post 请求，调用线程不阻塞
+     * <p>
+     * 请求体与请求头在调用线程上构建，执行器上只执行请求本身，提交后修改此实例不影响已提交的请求。
+     *
+     * @param url          请求地址
+     * @param responseType 响应类型
+     * @param executor     执行器，如 {@link HttpExecutor#getDefault()}
+     * @return
+     */
+    public <T> CompletableFuture<T> post(String url, Class<T> responseType, HttpExecutor executor) {
+        HttpEntity<?> entity = build();
+        return executor.submit(url, () -> getInstance().postForObject(url, entity, responseType));
+    }
+
+    /**
+     * 在执行器上发起 get 请求，调用线程不阻塞
+     * <p>
+     * 请求头与 URI 在调用线程上构建，执行器上只执行请求本身，提交后修改此实例不影响已提交的请求。
+     *
+     * @param url          请求地址
+     * @param responseType 响应类型
+     * @param executor     执行器，如 {@link HttpExecutor#getDefault()}
+     * @return
+     */
+    public <T> CompletableFuture<T> get(String url, Class<T> responseType, HttpExecutor executor) {
+        HttpEntity<?> entity = build();
+        URI uri;
+        try {
+            uri = buildUri(url);
+        } catch (URISyntaxException e) {
+            e.printStackTrace();
+            return CompletableFuture.completedFuture(null);
+        }
+        return executor.submit(url, () -> getInstance().exchange(uri, HttpMethod.GET, entity, responseType).getBody());
     }
 
     /**
@@ -179,18 +256,24 @@ public final class RestClientUtil {
 
     /**
      * 构建 HttpEntity
+     * <p>
+     * 请求头与参数均复制一份，不修改此实例，重复调用不会累积 Content-Type
      */
-    private void build() {
+    private HttpEntity<?> build() {
+        HttpHeaders headers = new HttpHeaders();
+        if (this.httpHeaders != null) {
+            this.httpHeaders.forEach((k, v) -> headers.put(k, new ArrayList<>(v)));
+        }
         if (StringUtils.isEmpty(contentType) || DEFAULT_CONTENT_TYPE.equals(contentType)) {
-            this.setContentType(DEFAULT_CONTENT_TYPE);
-            this.httpEntity = new HttpEntity<>((param != null ? JSON.toJSONString(param) : null), httpHeaders);
+            headers.set(HttpHeaders.CONTENT_TYPE, DEFAULT_CONTENT_TYPE);
+            return new HttpEntity<>((param != null ? JSON.toJSONString(param) : null), headers);
         } else if (MediaType.APPLICATION_FORM_URLENCODED_VALUE.equals(contentType)) {
             if (param != null) {
                 MultiValueMap<Object, Object> formData = new LinkedMultiValueMap<>();
                 this.param.keySet().forEach(key -> formData.add(key, param.get(key)));
-                this.httpEntity = new HttpEntity<>(formData, httpHeaders);
+                return new HttpEntity<>(formData, headers);
             } else {
-                this.httpEntity = new HttpEntity<>(null, httpHeaders);
+                return new HttpEntity<>(null, headers);
             }
         } else {
             throw new RuntimeException(String.format("Unsupported content type %s ", contentType));
@@ -236,25 +319,32 @@ public final class RestClientUtil {
 
     /**
      * 获取 RestTemplate 实例
+     * <p>
+     * 底层使用 {@link HttpClientPool#getDefault()} 的连接池，连接在请求之间复用；实例只在首次使用时配置一次，可在多线程间共享。
+     * 响应不做缓冲，由消息转换器或 {@link org.springframework.web.client.ResponseExtractor} 直接从连接读取。
      *
      * @return
      */
     public static RestTemplate getInstance() {
-        RestTemplate instance = SingleRestTemplate.INSTANCE;
+        return SingleRestTemplate.INSTANCE;
+    }
+
+    private static RestTemplate newRestTemplate() {
+        RestTemplate instance = new RestTemplate();
         instance.getMessageConverters().set(1, new StringHttpMessageConverter(BaseConst.CHARSET_UTF8));
         ClientHttpRequestInterceptor interceptor = new HttpLogInterceptor();
         List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>(1);
         interceptors.add(interceptor);
         instance.setInterceptors(interceptors);
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
+        HttpComponentsClientHttpRequestFactory factory = new HttpComponentsClientHttpRequestFactory(HttpClientPool.getDefault().getClient());
         factory.setConnectTimeout(CONNECT_TIMEOUT);
         factory.setReadTimeout(READ_TIMEOUT);
-        instance.setRequestFactory(new BufferingClientHttpRequestFactory(factory));
+        instance.setRequestFactory(factory);
         return instance;
     }
 
     static class SingleRestTemplate {
-        static final RestTemplate INSTANCE = new RestTemplate();
+        static final RestTemplate INSTANCE = newRestTemplate();
     }
 
 }
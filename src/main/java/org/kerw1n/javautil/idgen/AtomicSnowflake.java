@@ -0,0 +1,114 @@
+package org.kerw1n.javautil.idgen;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁 Snowflake 实现
+ * <p>
+ * 与 {@link Snowflake} 位布局一致，时间戳与序列号打包在同一个 {@link AtomicLong} 中，通过 CAS 更新，
+ * 高并发下不再争用同一把监视器锁。
+ * <p>
+ * 状态布局：(timestamp - twepoch) << sequenceBits | sequence
+ *
+ * @author kerw1n
+ * @see Snowflake
+ */
+public class AtomicSnowflake extends Snowflake {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 打包的时间戳与序列号
+     */
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * 构造函数
+     *
+     * @param workerId     机器节点 id，0~31
+     * @param dataCenterId 数据中心 id，0~31
+     */
+    public AtomicSnowflake(long workerId, long dataCenterId) {
+        super(workerId, dataCenterId);
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param workerId     机器节点 id，0~31
+     * @param dataCenterId 数据中心 id，0~31
+     * @param clock        时钟源
+     */
+    public AtomicSnowflake(long workerId, long dataCenterId, ClockSource clock) {
+        super(workerId, dataCenterId, clock);
+    }
+
+    /**
+     * 获得下一个 ID
+     *
+     * @return ID
+     */
+    @Override
+    public long nextId() {
+        for (; ; ) {
+            long prev = state.get();
+            long lastTimestamp = (prev >>> sequenceBits) + twepoch;
+            long timestamp = currentTimestamp(lastTimestamp);
+
+            long next;
+            if (timestamp == lastTimestamp) {
+                if ((prev & sequenceMask) == sequenceMask) {
+                    // 当前毫秒序列号已用尽
+                    next = pack(tilNextMillis(lastTimestamp), 0L);
+                } else {
+                    next = prev + 1;
+                }
+            } else {
+                next = pack(timestamp, 0L);
+            }
+
+            if (state.compareAndSet(prev, next)) {
+                return assemble((next >>> sequenceBits) + twepoch, next & sequenceMask);
+            }
+        }
+    }
+
+    /**
+     * 批量获取 ID，填充到指定数组
+     * <p>
+     * 每次 CAS 预留当前毫秒内剩余的一段序列号，序列号用尽后顺延到下一毫秒。
+     *
+     * @param dest 目标数组
+     * @return 目标数组
+     */
+    @Override
+    public long[] nextIds(long[] dest) {
+        int offset = 0;
+        while (offset < dest.length) {
+            long prev = state.get();
+            long lastTimestamp = (prev >>> sequenceBits) + twepoch;
+            long timestamp = currentTimestamp(lastTimestamp);
+
+            long seq = timestamp == lastTimestamp ? (prev & sequenceMask) + 1 : 0L;
+            if (seq > sequenceMask) {
+                timestamp = tilNextMillis(lastTimestamp);
+                seq = 0L;
+            }
+            long count = Math.min(dest.length - offset, sequenceMask + 1 - seq);
+            if (state.compareAndSet(prev, pack(timestamp, seq + count - 1))) {
+                offset += fill(dest, offset, timestamp, seq);
+            }
+        }
+        return dest;
+    }
+
+    /**
+     * 打包时间戳与序列号
+     *
+     * @param timestamp 时间戳
+     * @param sequence  序列号
+     * @return 打包后的状态
+     */
+    private long pack(long timestamp, long sequence) {
+        return ((timestamp - twepoch) << sequenceBits) | sequence;
+    }
+}
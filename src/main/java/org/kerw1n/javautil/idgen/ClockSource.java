@@ -0,0 +1,59 @@
+package org.kerw1n.javautil.idgen;
+
+import java.io.Serializable;
+
+/**
+ * 时钟源
+ * <p>
+ * ID 生成器通过此接口获取当前毫秒数，便于切换为缓存时钟、单调时钟或测试时钟。
+ *
+ * @author kerw1n
+ * @see Snowflake
+ */
+@FunctionalInterface
+public interface ClockSource extends Serializable {
+
+    /**
+     * 系统时钟，直接调用 {@link System#currentTimeMillis()}
+     */
+    ClockSource SYSTEM = System::currentTimeMillis;
+
+    /**
+     * 缓存时钟，读取 {@link SystemClock#now()}，由后台线程定时更新
+     */
+    ClockSource CACHED = SystemClock::now;
+
+    /**
+     * 当前时间毫秒数
+     *
+     * @return 毫秒数
+     */
+    long currentTimeMillis();
+
+    /**
+     * 创建单调时钟，以当前系统时间为起点，按 {@link System#nanoTime()} 推进，不受系统时间回拨影响
+     *
+     * @return 单调时钟
+     */
+    static ClockSource monotonic() {
+        return new MonotonicClock();
+    }
+
+    /**
+     * 单调时钟
+     */
+    final class MonotonicClock implements ClockSource {
+        private static final long serialVersionUID = 1L;
+
+        private final long anchorMillis = System.currentTimeMillis();
+        private final long anchorNanos = System.nanoTime();
+
+        private MonotonicClock() {
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return anchorMillis + (System.nanoTime() - anchorNanos) / 1000000L;
+        }
+    }
+}
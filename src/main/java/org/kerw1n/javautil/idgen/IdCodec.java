@@ -0,0 +1,435 @@
+package org.kerw1n.javautil.idgen;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * ID 编解码工具类
+ * <p>
+ * 支持 {@link UUID} 与 Snowflake 生成的 long 型 ID 在以下形式之间转换：
+ * <ul>
+ * <li>大端字节数组（UUID 16 字节，long 8 字节）及 {@link ByteBuffer}</li>
+ * <li>定长 Base62 字符串（0-9A-Za-z，UUID 22 位，long 11 位）</li>
+ * <li>定长 Crockford Base32 字符串（UUID 26 位，long 13 位，解码时忽略大小写，I/L 视为 1，O 视为 0）</li>
+ * </ul>
+ * <p>
+ * 字符表按 ASCII 顺序排列且编码定长，字符串的字典序与 ID 的无符号数值顺序一致，可直接用作有序的缓存键或 URL 片段。
+ * 写入调用方数组的方法不产生额外对象。
+ *
+ * @author kerw1n
+ */
+public final class IdCodec {
+
+    public static final int BASE62_LONG_LENGTH = 11;
+    public static final int BASE62_UUID_LENGTH = 22;
+    public static final int BASE32_LONG_LENGTH = 13;
+    public static final int BASE32_UUID_LENGTH = 26;
+
+    private static final char[] BASE62_DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+    private static final char[] BASE32_DIGITS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final byte[] BASE62_VALUES = new byte[128];
+    private static final byte[] BASE32_VALUES = new byte[128];
+
+    private static final long INT_MASK = 0xFFFFFFFFL;
+
+    static {
+        Arrays.fill(BASE62_VALUES, (byte) -1);
+        for (int i = 0; i < BASE62_DIGITS.length; i++) {
+            BASE62_VALUES[BASE62_DIGITS[i]] = (byte) i;
+        }
+        Arrays.fill(BASE32_VALUES, (byte) -1);
+        for (int i = 0; i < BASE32_DIGITS.length; i++) {
+            BASE32_VALUES[BASE32_DIGITS[i]] = (byte) i;
+            BASE32_VALUES[Character.toLowerCase(BASE32_DIGITS[i])] = (byte) i;
+        }
+        BASE32_VALUES['I'] = BASE32_VALUES['i'] = BASE32_VALUES['L'] = BASE32_VALUES['l'] = 1;
+        BASE32_VALUES['O'] = BASE32_VALUES['o'] = 0;
+    }
+
+    private IdCodec() {
+    }
+
+    // Binary
+
+    /**
+     * UUID 转为 16 字节数组
+     *
+     * @param uuid UUID
+     * @return 字节数组
+     */
+    public static byte[] toBytes(UUID uuid) {
+        byte[] bytes = new byte[16];
+        toBytes(uuid, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * UUID 写入字节数组
+     *
+     * @param uuid   UUID
+     * @param dest   目标数组
+     * @param offset 起始下标
+     * @return 写入的字节数，16
+     */
+    public static int toBytes(UUID uuid, byte[] dest, int offset) {
+        toBytes(uuid.getMostSignificantBits(), dest, offset);
+        toBytes(uuid.getLeastSignificantBits(), dest, offset + 8);
+        return 16;
+    }
+
+    /**
+     * 从字节数组读取 UUID
+     *
+     * @param src    字节数组
+     * @param offset 起始下标
+     * @return UUID
+     */
+    public static UUID uuidFromBytes(byte[] src, int offset) {
+        return new UUID(longFromBytes(src, offset), longFromBytes(src, offset + 8));
+    }
+
+    /**
+     * UUID 写入 {@link ByteBuffer}，支持直接缓冲区
+     *
+     * @param dest 目标缓冲区
+     * @param uuid UUID
+     * @return 目标缓冲区
+     */
+    public static ByteBuffer put(ByteBuffer dest, UUID uuid) {
+        return dest.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    /**
+     * 从 {@link ByteBuffer} 读取 UUID
+     *
+     * @param src 缓冲区
+     * @return UUID
+     */
+    public static UUID getUUID(ByteBuffer src) {
+        long mostSigBits = src.getLong();
+        return new UUID(mostSigBits, src.getLong());
+    }
+
+    /**
+     * long 型 ID 转为 8 字节数组
+     *
+     * @param id ID
+     * @return 字节数组
+     */
+    public static byte[] toBytes(long id) {
+        byte[] bytes = new byte[8];
+        toBytes(id, bytes, 0);
+        return bytes;
+    }
+
+    /**
+     * long 型 ID 以大端顺序写入字节数组
+     *
+     * @param id     ID
+     * @param dest   目标数组
+     * @param offset 起始下标
+     * @return 写入的字节数，8
+     */
+    public static int toBytes(long id, byte[] dest, int offset) {
+        for (int i = 7; i >= 0; i--) {
+            dest[offset + i] = (byte) id;
+            id >>>= 8;
+        }
+        return 8;
+    }
+
+    /**
+     * 从字节数组以大端顺序读取 long 型 ID
+     *
+     * @param src    字节数组
+     * @param offset 起始下标
+     * @return ID
+     */
+    public static long longFromBytes(byte[] src, int offset) {
+        long id = 0;
+        for (int i = 0; i < 8; i++) {
+            id = (id << 8) | (src[offset + i] & 0xff);
+        }
+        return id;
+    }
+
+    /**
+     * long 型 ID 写入 {@link ByteBuffer}
+     *
+     * @param dest 目标缓冲区
+     * @param id   ID
+     * @return 目标缓冲区
+     */
+    public static ByteBuffer put(ByteBuffer dest, long id) {
+        return dest.putLong(id);
+    }
+
+    /**
+     * 从 {@link ByteBuffer} 读取 long 型 ID
+     *
+     * @param src 缓冲区
+     * @return ID
+     */
+    public static long getLong(ByteBuffer src) {
+        return src.getLong();
+    }
+
+    // Base62
+
+    /**
+     * long 型 ID 转为 11 位 Base62 字符串，按无符号数编码
+     *
+     * @param id ID
+     * @return Base62 字符串
+     */
+    public static String toBase62(long id) {
+        char[] chars = new char[BASE62_LONG_LENGTH];
+        toBase62(id, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * long 型 ID 以 Base62 编码写入字符数组
+     *
+     * @param id     ID
+     * @param dest   目标数组
+     * @param offset 起始下标
+     * @return 写入的字符数，11
+     */
+    public static int toBase62(long id, char[] dest, int offset) {
+        long hi = id >>> 32;
+        long lo = id & INT_MASK;
+        for (int i = offset + BASE62_LONG_LENGTH - 1; i >= offset; i--) {
+            long cur = hi;
+            hi = cur / 62;
+            cur = ((cur % 62) << 32) | lo;
+            lo = cur / 62;
+            dest[i] = BASE62_DIGITS[(int) (cur % 62)];
+        }
+        return BASE62_LONG_LENGTH;
+    }
+
+    /**
+     * 解析 11 位 Base62 字符串为 long 型 ID
+     *
+     * @param s Base62 字符串
+     * @return ID
+     * @throws IllegalArgumentException 字符串长度或字符不合法，或数值超出 64 位
+     */
+    public static long longFromBase62(CharSequence s) {
+        checkLength(s, BASE62_LONG_LENGTH);
+        long hi = 0;
+        long lo = 0;
+        for (int i = 0; i < BASE62_LONG_LENGTH; i++) {
+            long cur = lo * 62 + digit(s, i, BASE62_VALUES);
+            lo = cur & INT_MASK;
+            cur = hi * 62 + (cur >>> 32);
+            hi = cur & INT_MASK;
+            if ((cur >>> 32) != 0) {
+                throw new IllegalArgumentException("Base62 value out of range: " + s);
+            }
+        }
+        return hi << 32 | lo;
+    }
+
+    /**
+     * UUID 转为 22 位 Base62 字符串
+     *
+     * @param uuid UUID
+     * @return Base62 字符串
+     */
+    public static String toBase62(UUID uuid) {
+        char[] chars = new char[BASE62_UUID_LENGTH];
+        toBase62(uuid, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * UUID 以 Base62 编码写入字符数组
+     *
+     * @param uuid   UUID
+     * @param dest   目标数组
+     * @param offset 起始下标
+     * @return 写入的字符数，22
+     */
+    public static int toBase62(UUID uuid, char[] dest, int offset) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        // 128 位无符号数按 32 位拆分，逐位做长除法
+        long l3 = msb >>> 32;
+        long l2 = msb & INT_MASK;
+        long l1 = lsb >>> 32;
+        long l0 = lsb & INT_MASK;
+        for (int i = offset + BASE62_UUID_LENGTH - 1; i >= offset; i--) {
+            long cur = l3;
+            l3 = cur / 62;
+            cur = ((cur % 62) << 32) | l2;
+            l2 = cur / 62;
+            cur = ((cur % 62) << 32) | l1;
+            l1 = cur / 62;
+            cur = ((cur % 62) << 32) | l0;
+            l0 = cur / 62;
+            dest[i] = BASE62_DIGITS[(int) (cur % 62)];
+        }
+        return BASE62_UUID_LENGTH;
+    }
+
+    /**
+     * 解析 22 位 Base62 字符串为 UUID
+     *
+     * @param s Base62 字符串
+     * @return UUID
+     * @throws IllegalArgumentException 字符串长度或字符不合法，或数值超出 128 位
+     */
+    public static UUID uuidFromBase62(CharSequence s) {
+        checkLength(s, BASE62_UUID_LENGTH);
+        long l3 = 0;
+        long l2 = 0;
+        long l1 = 0;
+        long l0 = 0;
+        for (int i = 0; i < BASE62_UUID_LENGTH; i++) {
+            long cur = l0 * 62 + digit(s, i, BASE62_VALUES);
+            l0 = cur & INT_MASK;
+            cur = l1 * 62 + (cur >>> 32);
+            l1 = cur & INT_MASK;
+            cur = l2 * 62 + (cur >>> 32);
+            l2 = cur & INT_MASK;
+            cur = l3 * 62 + (cur >>> 32);
+            l3 = cur & INT_MASK;
+            if ((cur >>> 32) != 0) {
+                throw new IllegalArgumentException("Base62 value out of range: " + s);
+            }
+        }
+        return new UUID(l3 << 32 | l2, l1 << 32 | l0);
+    }
+
+    // Crockford Base32
+
+    /**
+     * long 型 ID 转为 13 位 Crockford Base32 字符串，按无符号数编码
+     *
+     * @param id ID
+     * @return Base32 字符串
+     */
+    public static String toBase32(long id) {
+        char[] chars = new char[BASE32_LONG_LENGTH];
+        toBase32(id, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * long 型 ID 以 Crockford Base32 编码写入字符数组
+     *
+     * @param id     ID
+     * @param dest   目标数组
+     * @param offset 起始下标
+     * @return 写入的字符数，13
+     */
+    public static int toBase32(long id, char[] dest, int offset) {
+        for (int i = offset + BASE32_LONG_LENGTH - 1; i >= offset; i--) {
+            dest[i] = BASE32_DIGITS[(int) id & 0x1f];
+            id >>>= 5;
+        }
+        return BASE32_LONG_LENGTH;
+    }
+
+    /**
+     * 解析 13 位 Crockford Base32 字符串为 long 型 ID
+     *
+     * @param s Base32 字符串
+     * @return ID
+     * @throws IllegalArgumentException 字符串长度或字符不合法，或数值超出 64 位
+     */
+    public static long longFromBase32(CharSequence s) {
+        checkLength(s, BASE32_LONG_LENGTH);
+        // 13 位共 65 位，首位只能为 0~F
+        int first = digit(s, 0, BASE32_VALUES);
+        if (first > 15) {
+            throw new IllegalArgumentException("Base32 value out of range: " + s);
+        }
+        long id = first;
+        for (int i = 1; i < BASE32_LONG_LENGTH; i++) {
+            id = (id << 5) | digit(s, i, BASE32_VALUES);
+        }
+        return id;
+    }
+
+    /**
+     * UUID 转为 26 位 Crockford Base32 字符串
+     *
+     * @param uuid UUID
+     * @return Base32 字符串
+     */
+    public static String toBase32(UUID uuid) {
+        char[] chars = new char[BASE32_UUID_LENGTH];
+        toBase32(uuid, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * UUID 以 Crockford Base32 编码写入字符数组
+     *
+     * @param uuid   UUID
+     * @param dest   目标数组
+     * @param offset 起始下标
+     * @return 写入的字符数，26
+     */
+    public static int toBase32(UUID uuid, char[] dest, int offset) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        // 低 64 位占 12 位字符余 4 位，与高位拼接成第 13 位字符
+        for (int i = offset + BASE32_UUID_LENGTH - 1; i >= offset + 14; i--) {
+            dest[i] = BASE32_DIGITS[(int) lsb & 0x1f];
+            lsb >>>= 5;
+        }
+        dest[offset + 13] = BASE32_DIGITS[(int) (lsb | (msb << 4)) & 0x1f];
+        msb >>>= 1;
+        for (int i = offset + 12; i >= offset; i--) {
+            dest[i] = BASE32_DIGITS[(int) msb & 0x1f];
+            msb >>>= 5;
+        }
+        return BASE32_UUID_LENGTH;
+    }
+
+    /**
+     * 解析 26 位 Crockford Base32 字符串为 UUID
+     *
+     * @param s Base32 字符串
+     * @return UUID
+     * @throws IllegalArgumentException 字符串长度或字符不合法，或数值超出 128 位
+     */
+    public static UUID uuidFromBase32(CharSequence s) {
+        checkLength(s, BASE32_UUID_LENGTH);
+        // 26 位共 130 位，首位只能为 0~7
+        int first = digit(s, 0, BASE32_VALUES);
+        if (first > 7) {
+            throw new IllegalArgumentException("Base32 value out of range: " + s);
+        }
+        long msb = first;
+        for (int i = 1; i < 13; i++) {
+            msb = (msb << 5) | digit(s, i, BASE32_VALUES);
+        }
+        int middle = digit(s, 13, BASE32_VALUES);
+        msb = (msb << 1) | (middle >>> 4);
+        long lsb = middle & 0x0f;
+        for (int i = 14; i < BASE32_UUID_LENGTH; i++) {
+            lsb = (lsb << 5) | digit(s, i, BASE32_VALUES);
+        }
+        return new UUID(msb, lsb);
+    }
+
+    private static void checkLength(CharSequence s, int length) {
+        if (s.length() != length) {
+            throw new IllegalArgumentException("Invalid id string length " + s.length() + ", expected " + length + ": " + s);
+        }
+    }
+
+    private static int digit(CharSequence s, int index, byte[] values) {
+        char c = s.charAt(index);
+        int digit = c < 128 ? values[c] : -1;
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid character '" + c + "' at index " + index + ": " + s);
+        }
+        return digit;
+    }
+}
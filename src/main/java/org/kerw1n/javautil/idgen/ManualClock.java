@@ -0,0 +1,48 @@
+package org.kerw1n.javautil.idgen;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 手动时钟，时间只在调用 {@link #set(long)}、{@link #advance(long)} 时变化，用于测试时钟回拨、序列号用尽等场景
+ *
+ * @author kerw1n
+ * @see ClockSource
+ */
+public class ManualClock implements ClockSource {
+    private static final long serialVersionUID = 1L;
+
+    private final AtomicLong now;
+
+    /**
+     * 构造函数
+     *
+     * @param now 初始毫秒数
+     */
+    public ManualClock(long now) {
+        this.now = new AtomicLong(now);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now.get();
+    }
+
+    /**
+     * 设置当前时间
+     *
+     * @param millis 毫秒数
+     */
+    public void set(long millis) {
+        now.set(millis);
+    }
+
+    /**
+     * 推进时间，传入负数即为回拨
+     *
+     * @param millis 毫秒数
+     * @return 推进后的毫秒数
+     */
+    public long advance(long millis) {
+        return now.addAndGet(millis);
+    }
+}
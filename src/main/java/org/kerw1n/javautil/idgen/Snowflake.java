@@ -3,6 +3,9 @@ package org.kerw1n.javautil.idgen;
 import org.kerw1n.javautil.format.MessageFormatter;
 
 import java.io.Serializable;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Twitter 的 Snowflake 算法
@@ -16,9 +19,9 @@ public class Snowflake implements Serializable {
     /**
      * 开始时间(2015-01-01)
      */
-    private final long twepoch = 1420041600000L;
-    private final long workerIdBits = 5L;
-    private final long dataCenterIdBits = 5L;
+    final long twepoch = 1420041600000L;
+    final long workerIdBits = 5L;
+    final long dataCenterIdBits = 5L;
     /**
      * 最大支持机器节点数 0~31，一共 32 个
      */
@@ -32,50 +35,77 @@ public class Snowflake implements Serializable {
     /**
      * 序列号 12 位
      */
-    private final long sequenceBits = 12L;
+    final long sequenceBits = 12L;
     /**
      * 机器节点左移 12 位
      */
-    private final long workerIdShift = sequenceBits;
+    final long workerIdShift = sequenceBits;
     /**
      * 数据中心节点左移 17 位
      */
-    private final long dataCenterIdShift = sequenceBits + workerIdBits;
+    final long dataCenterIdShift = sequenceBits + workerIdBits;
     /**
      * 时间毫秒数左移 22 位
      */
-    private final long timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
+    final long timestampLeftShift = sequenceBits + workerIdBits + dataCenterIdBits;
     @SuppressWarnings({"PointlessBitwiseExpression", "FieldCanBeLocal"})
     /**
      * 序列掩码 4095
      */
-    private final long sequenceMask = -1L ^ (-1L << sequenceBits);
+    final long sequenceMask = -1L ^ (-1L << sequenceBits);
+    /**
+     * 时钟回拨容忍时间 ms
+     */
+    final long maxBackwardMillis = 2000L;
+    /**
+     * 等待下一毫秒时先让出 CPU 的次数，超过后挂起线程
+     */
+    private static final int YIELD_TIMES = 16;
+    /**
+     * 等待下一毫秒时每次挂起的时长
+     */
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
 
     /**
-     * 单机部署可固定
+     * 机器节点 id，多节点部署时各节点需不同
      */
-    private final long workerId = 1;
-    private final long dataCenterId = 1;
+    final long workerId;
+    /**
+     * 数据中心 id
+     */
+    final long dataCenterId;
+    /**
+     * 时钟源
+     */
+    final ClockSource clock;
     private long sequence = 0L;
     private long lastTimestamp = -1L;
 
+    /**
+     * 单机部署默认 workerId 和 dataCenterId 均为 1
+     */
     private Snowflake() {
+        this(1, 1);
     }
 
     /**
-     * 获取默认实例
+     * 构造函数
      *
-     * @return
+     * @param workerId     机器节点 id，0~31
+     * @param dataCenterId 数据中心 id，0~31
      */
-    public static Snowflake getInstance() {
-        return InstanceHolder.INSTANCE;
-    }
-
-    static class InstanceHolder {
-        static final Snowflake INSTANCE = new Snowflake();
+    public Snowflake(long workerId, long dataCenterId) {
+        this(workerId, dataCenterId, ClockSource.SYSTEM);
     }
 
-    /*private Snowflake(long workerId, long dataCenterId) {
+    /**
+     * 构造函数
+     *
+     * @param workerId     机器节点 id，0~31
+     * @param dataCenterId 数据中心 id，0~31
+     * @param clock        时钟源，如 {@link ClockSource#CACHED}、{@link ClockSource#monotonic()}
+     */
+    public Snowflake(long workerId, long dataCenterId, ClockSource clock) {
         if (workerId > maxWorkerId || workerId < 0) {
             throw new IllegalArgumentException(MessageFormatter.format("worker Id can't be greater than {} or less than 0", maxWorkerId));
         }
@@ -84,7 +114,21 @@ public class Snowflake implements Serializable {
         }
         this.workerId = workerId;
         this.dataCenterId = dataCenterId;
-    }*/
+        this.clock = Objects.requireNonNull(clock);
+    }
+
+    /**
+     * 获取默认实例
+     *
+     * @return
+     */
+    public static Snowflake getInstance() {
+        return InstanceHolder.INSTANCE;
+    }
+
+    static class InstanceHolder {
+        static final Snowflake INSTANCE = new Snowflake();
+    }
 
     /**
      * 根据Snowflake的ID，获取机器id
@@ -122,16 +166,7 @@ public class Snowflake implements Serializable {
      * @return ID
      */
     public synchronized long nextId() {
-        long timestamp = genTime();
-        if (timestamp < lastTimestamp) {
-            if (lastTimestamp - timestamp < 2000) {
-                // 容忍2秒内的回拨，避免NTP校时造成的异常
-                timestamp = lastTimestamp;
-            } else {
-                // 如果服务器时间有问题(时钟后退) 报错。
-                throw new IllegalStateException(MessageFormatter.format("Clock moved backwards. Refusing to generate id for {}ms", lastTimestamp - timestamp));
-            }
-        }
+        long timestamp = currentTimestamp(lastTimestamp);
 
         if (timestamp == lastTimestamp) {
             sequence = (sequence + 1) & sequenceMask;
@@ -144,6 +179,17 @@ public class Snowflake implements Serializable {
 
         lastTimestamp = timestamp;
 
+        return assemble(timestamp, sequence);
+    }
+
+    /**
+     * 按位组装 ID
+     *
+     * @param timestamp 时间戳
+     * @param sequence  序列号
+     * @return ID
+     */
+    long assemble(long timestamp, long sequence) {
         return ((timestamp - twepoch) << timestampLeftShift) | (dataCenterId << dataCenterIdShift) | (workerId << workerIdShift) | sequence;
     }
 
@@ -156,24 +202,114 @@ public class Snowflake implements Serializable {
         return Long.toString(nextId());
     }
 
+    /**
+     * 批量获取 ID
+     *
+     * @param n 数量
+     * @return ID 数组，按生成顺序递增
+     * @see #nextIds(long[])
+     */
+    public long[] nextIds(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException(MessageFormatter.format("n can't be less than 0: {}", n));
+        }
+        return nextIds(new long[n]);
+    }
+
+    /**
+     * 批量获取 ID，填充到指定数组
+     * <p>
+     * 一次预留一段连续的序列号，当前毫秒序列号用尽后顺延到下一毫秒，每毫秒只读取一次时钟。
+     *
+     * @param dest 目标数组
+     * @return 目标数组
+     */
+    public synchronized long[] nextIds(long[] dest) {
+        if (dest.length == 0) {
+            return dest;
+        }
+        long timestamp = currentTimestamp(lastTimestamp);
+
+        long seq = timestamp == lastTimestamp ? sequence + 1 : 0L;
+        int offset = 0;
+        while (offset < dest.length) {
+            if (seq > sequenceMask) {
+                timestamp = tilNextMillis(timestamp);
+                seq = 0L;
+            }
+            int count = fill(dest, offset, timestamp, seq);
+            offset += count;
+            seq += count;
+        }
+
+        lastTimestamp = timestamp;
+        sequence = seq - 1;
+        return dest;
+    }
 
     /**
-     * 循环等待下一个时间
+     * 以同一时间戳填充连续的序列号，直到数组填满或序列号用尽
+     *
+     * @param dest      目标数组
+     * @param offset    起始下标
+     * @param timestamp 时间戳
+     * @param sequence  起始序列号
+     * @return 填充数量
+     */
+    int fill(long[] dest, int offset, long timestamp, long sequence) {
+        int count = (int) Math.min(dest.length - offset, sequenceMask + 1 - sequence);
+        long base = assemble(timestamp, sequence);
+        for (int i = 0; i < count; i++) {
+            dest[offset + i] = base + i;
+        }
+        return count;
+    }
+
+
+    /**
+     * 获取当前时间戳，容忍2秒内的回拨，避免NTP校时造成的异常
+     *
+     * @param lastTimestamp 上次记录的时间
+     * @return 当前时间戳，发生回拨时返回上次记录的时间
+     */
+    long currentTimestamp(long lastTimestamp) {
+        long timestamp = genTime();
+        if (timestamp < lastTimestamp) {
+            if (lastTimestamp - timestamp < maxBackwardMillis) {
+                timestamp = lastTimestamp;
+            } else {
+                // 如果服务器时间有问题(时钟后退) 报错。
+                throw new IllegalStateException(MessageFormatter.format("Clock moved backwards. Refusing to generate id for {}ms", lastTimestamp - timestamp));
+            }
+        }
+        return timestamp;
+    }
+
+    /**
+     * 等待下一个时间
+     * <p>
+     * 先让出 CPU，仍未到下一毫秒则短暂挂起线程，避免序列号用尽时空转占满一个核。
+     * 等待期间时钟回拨不超过2秒则继续等待，否则报错。
      *
      * @param lastTimestamp 上次记录的时间
      * @return 下一个时间
      */
-    private long tilNextMillis(long lastTimestamp) {
+    long tilNextMillis(long lastTimestamp) {
         long timestamp = genTime();
-        // 循环直到操作系统时间戳变化
-        while (timestamp == lastTimestamp) {
+        int waits = 0;
+        while (timestamp <= lastTimestamp) {
+            if (lastTimestamp - timestamp >= maxBackwardMillis) {
+                // 如果发现新的时间戳比上次记录的时间戳数值小，说明操作系统时间发生了倒退，报错
+                throw new IllegalStateException(
+                        MessageFormatter.format("Clock moved backwards. Refusing to generate id for {}ms", lastTimestamp - timestamp));
+            }
+            if (++waits <= YIELD_TIMES) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(PARK_NANOS);
+            }
             timestamp = genTime();
         }
-        if (timestamp < lastTimestamp) {
-            // 如果发现新的时间戳比上次记录的时间戳数值小，说明操作系统时间发生了倒退，报错
-            throw new IllegalStateException(
-                    MessageFormatter.format("Clock moved backwards. Refusing to generate id for {}ms", lastTimestamp - timestamp));
-        }
         return timestamp;
     }
 
@@ -182,7 +318,7 @@ public class Snowflake implements Serializable {
      *
      * @return 时间戳
      */
-    private long genTime() {
-        return System.currentTimeMillis();
+    long genTime() {
+        return clock.currentTimeMillis();
     }
 }
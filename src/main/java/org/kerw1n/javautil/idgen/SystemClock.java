@@ -1,19 +1,29 @@
 package org.kerw1n.javautil.idgen;
 
-import java.sql.Timestamp;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.io.Closeable;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 /**
  * 系统时钟
  * <p>
  * 高并发场景下 System.currentTimeMillis() 的性能问题的优化
- * 后台定时更新时钟，JVM退出时，线程自动回收
+ * 所有时钟共用一个后台守护线程定时更新，JVM退出时，线程自动回收；全部时钟关闭后线程空闲一段时间自动退出
+ * <p>
+ * 同时缓存当前秒的日期字符串，只在秒数变化时重新格式化
  *
  * @author kerw1n
  */
-public class SystemClock {
+public class SystemClock implements Closeable {
+
+    /**
+     * 日期字符串格式，与 {@link java.sql.Timestamp#toString()} 的秒部分一致
+     */
+    private static final DateTimeFormatter SECOND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     /**
      * 时钟更新间隔 ms
@@ -23,6 +33,19 @@ public class SystemClock {
      * 现在时刻的毫秒数
      */
     private volatile long now;
+    /**
+     * 当前秒的日期字符串
+     */
+    private volatile SecondText secondText;
+    /**
+     * 定时更新任务
+     */
+    private final ScheduledFuture<?> future;
+    /**
+     * 是否为 {@link #getInstance(Resolution)} 返回的共享实例，共享实例不能关闭
+     */
+    private final boolean shared;
+    private volatile boolean closed;
 
     /**
      * 构造函数
@@ -30,39 +53,198 @@ public class SystemClock {
      * @param period 时钟更新间隔 ms
      */
     public SystemClock(long period) {
+        this(period, false);
+    }
+
+    private SystemClock(long period, boolean shared) {
+        if (period <= 0) {
+            throw new IllegalArgumentException("period must be greater than 0");
+        }
         this.period = period;
+        this.shared = shared;
         this.now = System.currentTimeMillis();
-        scheduleClockUpdating();
+        this.secondText = new SecondText(now);
+        this.future = scheduleClockUpdating();
+    }
+
+    /**
+     * 构造函数
+     *
+     * @param resolution 时钟精度
+     */
+    public SystemClock(Resolution resolution) {
+        this(resolution.period);
+    }
+
+    /**
+     * 注册到共享的计时器线程
+     */
+    private ScheduledFuture<?> scheduleClockUpdating() {
+        return SchedulerHolder.SCHEDULER.scheduleAtFixedRate(this::update, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private void update() {
+        long millis = System.currentTimeMillis();
+        now = millis;
+        if (secondText.second != Math.floorDiv(millis, 1000L)) {
+            secondText = new SecondText(millis);
+        }
     }
 
     /**
-     * 开启计时器线程
+     * 当前时间毫秒数，关闭后直接读取系统时间
+     *
+     * @return
+     */
+    public long currentTimeMillis() {
+        return closed ? System.currentTimeMillis() : now;
+    }
+
+    /**
+     * 当前时间字符串，格式 yyyy-MM-dd HH:mm:ss，同一秒内返回同一个缓存对象
+     *
+     * @return
      */
-    private void scheduleClockUpdating() {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
-            Thread thread = new Thread(runnable, "System Clock");
-            thread.setDaemon(true);
-            return thread;
-        });
-        scheduler.scheduleAtFixedRate(() -> now = System.currentTimeMillis(), period, period, TimeUnit.MILLISECONDS);
+    public String currentSecondText() {
+        return secondText(currentTimeMillis()).text;
     }
 
     /**
-     * 当前时间毫秒数
+     * 当前时间字符串，格式与 {@link java.sql.Timestamp#toString()} 一致，复用缓存的秒部分，只拼接毫秒
      *
      * @return
      */
-    private long currentTimeMillis() {
-        return now;
+    public String currentDateText() {
+        long millis = currentTimeMillis();
+        SecondText st = secondText(millis);
+        int ms = (int) Math.floorMod(millis, 1000L);
+        char[] chars = st.prefix;
+        int len = chars.length;
+        char[] buf = new char[len + 3];
+        System.arraycopy(chars, 0, buf, 0, len);
+        if (ms == 0) {
+            buf[len++] = '0';
+        } else {
+            buf[len++] = (char) ('0' + ms / 100);
+            buf[len++] = (char) ('0' + ms / 10 % 10);
+            buf[len++] = (char) ('0' + ms % 10);
+            // 去掉末尾的 0
+            while (buf[len - 1] == '0') {
+                len--;
+            }
+        }
+        return new String(buf, 0, len);
+    }
+
+    private SecondText secondText(long millis) {
+        SecondText st = secondText;
+        if (st.second != Math.floorDiv(millis, 1000L)) {
+            // 已关闭或更新任务尚未执行
+            st = new SecondText(millis);
+            secondText = st;
+        }
+        return st;
+    }
+
+    /**
+     * 时钟更新间隔 ms
+     *
+     * @return
+     */
+    public long getPeriod() {
+        return period;
+    }
+
+    /**
+     * 停止更新，关闭后 {@link #currentTimeMillis()} 直接读取系统时间
+     * <p>
+     * 只关闭自行创建的实例；{@link #getInstance(Resolution)} 返回的共享实例为整个 JVM 所用，调用此方法不做任何操作。
+     */
+    @Override
+    public void close() {
+        if (shared) {
+            return;
+        }
+        closed = true;
+        future.cancel(false);
     }
 
     /**
-     * 单例
+     * 时钟精度
+     */
+    public enum Resolution {
+        /**
+         * 1 ms
+         */
+        MILLIS_1(1),
+        /**
+         * 10 ms
+         */
+        MILLIS_10(10),
+        /**
+         * 100 ms
+         */
+        MILLIS_100(100);
+
+        private final long period;
+
+        Resolution(long period) {
+            this.period = period;
+        }
+
+        public long getPeriod() {
+            return period;
+        }
+    }
+
+    /**
+     * 缓存的秒级日期字符串
+     */
+    private static final class SecondText {
+        final long second;
+        final String text;
+        final char[] prefix;
+
+        SecondText(long millis) {
+            this.second = Math.floorDiv(millis, 1000L);
+            this.text = SECOND_FORMATTER.format(Instant.ofEpochMilli(millis).atZone(ZoneId.systemDefault()));
+            this.prefix = (text + '.').toCharArray();
+        }
+    }
+
+    /**
+     * 共享的计时器线程
+     */
+    private static class SchedulerHolder {
+        static final ScheduledThreadPoolExecutor SCHEDULER;
+
+        static {
+            SCHEDULER = new ScheduledThreadPoolExecutor(1, runnable -> {
+                Thread thread = new Thread(runnable, "System Clock");
+                thread.setDaemon(true);
+                return thread;
+            });
+            SCHEDULER.setRemoveOnCancelPolicy(true);
+            SCHEDULER.setKeepAliveTime(1, TimeUnit.MINUTES);
+            SCHEDULER.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * 单例，各精度按需创建
      *
      * @author Looly
      */
     private static class InstanceHolder {
-        public static final SystemClock INSTANCE = new SystemClock(1);
+        public static final SystemClock INSTANCE = new SystemClock(Resolution.MILLIS_1.period, true);
+    }
+
+    private static class Millis10Holder {
+        static final SystemClock INSTANCE = new SystemClock(Resolution.MILLIS_10.period, true);
+    }
+
+    private static class Millis100Holder {
+        static final SystemClock INSTANCE = new SystemClock(Resolution.MILLIS_100.period, true);
     }
 
     /**
@@ -74,6 +256,23 @@ public class SystemClock {
         return InstanceHolder.INSTANCE;
     }
 
+    /**
+     * 指定精度的共享实例，{@link #close()} 对共享实例无效
+     *
+     * @param resolution 时钟精度
+     * @return
+     */
+    public static SystemClock getInstance(Resolution resolution) {
+        switch (resolution) {
+            case MILLIS_10:
+                return Millis10Holder.INSTANCE;
+            case MILLIS_100:
+                return Millis100Holder.INSTANCE;
+            default:
+                return InstanceHolder.INSTANCE;
+        }
+    }
+
     /**
      * 当前时间
      *
@@ -83,12 +282,31 @@ public class SystemClock {
         return getInstance().currentTimeMillis();
     }
 
+    /**
+     * 当前时间，指定精度
+     *
+     * @param resolution 时钟精度
+     * @return
+     */
+    public static long now(Resolution resolution) {
+        return getInstance(resolution).currentTimeMillis();
+    }
+
     /**
      * 当前时间字符串表现形式
      *
      * @return
      */
     public static String nowDate() {
-        return new Timestamp(getInstance().currentTimeMillis()).toString();
+        return getInstance().currentDateText();
+    }
+
+    /**
+     * 当前时间字符串表现形式，精确到秒，同一秒内不重复格式化
+     *
+     * @return
+     */
+    public static String nowSecond() {
+        return getInstance().currentSecondText();
     }
 }
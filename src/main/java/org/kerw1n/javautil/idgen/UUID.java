@@ -1,11 +1,16 @@
 package org.kerw1n.javautil.idgen;
 
+import java.io.IOException;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
-import java.util.Random;
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 提供通用唯一识别码（universally unique identifier）（UUID）实现，UUID表示一个128位的值。<br>
@@ -54,6 +59,41 @@ public final class UUID implements Serializable, Comparable<UUID> {
      */
     private final long leastSigBits;
 
+    /**
+     * 字符串形式长度
+     */
+    private static final int SIMPLE_LENGTH = 32;
+    private static final int STANDARD_LENGTH = 36;
+
+    /**
+     * 16 进制字符表
+     */
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * 16 进制字符到数值的查找表，非法字符为 -1
+     */
+    private static final byte[] HEX_VALUES = new byte[128];
+
+    /**
+     * RFC 4122 预定义命名空间，用于类型 3、5 UUID
+     */
+    public static final UUID NAMESPACE_DNS = new UUID(0x6ba7b8109dad11d1L, 0x80b400c04fd430c8L);
+    public static final UUID NAMESPACE_URL = new UUID(0x6ba7b8119dad11d1L, 0x80b400c04fd430c8L);
+    public static final UUID NAMESPACE_OID = new UUID(0x6ba7b8129dad11d1L, 0x80b400c04fd430c8L);
+    public static final UUID NAMESPACE_X500 = new UUID(0x6ba7b8149dad11d1L, 0x80b400c04fd430c8L);
+
+    static {
+        Arrays.fill(HEX_VALUES, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX_VALUES['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX_VALUES['a' + i] = (byte) (10 + i);
+            HEX_VALUES['A' + i] = (byte) (10 + i);
+        }
+    }
+
     /**
      * SecureRandom 单例
      */
@@ -61,6 +101,180 @@ public final class UUID implements Serializable, Comparable<UUID> {
         static final SecureRandom numberGenerator = new SecureRandom();
     }
 
+    /**
+     * 线程私有的熵缓冲区
+     * <p>
+     * 每个线程持有独立的 {@link SecureRandom}，一次读取一整块随机字节，避免共享实例上的锁竞争和每次调用的数组分配。
+     */
+    private static final class EntropyBuffer {
+        private static final int BUFFER_SIZE = 1024;
+        private static final ThreadLocal<EntropyBuffer> BUFFERS = ThreadLocal.withInitial(EntropyBuffer::new);
+
+        private final SecureRandom random = newSecureRandom();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private int position = BUFFER_SIZE;
+
+        static EntropyBuffer current() {
+            return BUFFERS.get();
+        }
+
+        long nextLong() {
+            if (position == BUFFER_SIZE) {
+                random.nextBytes(buffer);
+                position = 0;
+            }
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (buffer[position++] & 0xff);
+            }
+            return value;
+        }
+
+        void nextLongs(long[] dest) {
+            for (int i = 0; i < dest.length; i++) {
+                dest[i] = nextLong();
+            }
+        }
+
+        /**
+         * 优先使用实例间互不加锁的算法，默认的 NativePRNG 所有实例共享同一把锁
+         */
+        private static SecureRandom newSecureRandom() {
+            for (String algorithm : new String[]{"DRBG", "SHA1PRNG"}) {
+                try {
+                    return SecureRandom.getInstance(algorithm);
+                } catch (NoSuchAlgorithmException e) {
+                    // 尝试下一个算法
+                }
+            }
+            return new SecureRandom();
+        }
+    }
+
+    /**
+     * 线程私有的摘要实例，避免每次调用都查找摘要算法提供者
+     */
+    private static final class Digests {
+        private static final ThreadLocal<Digests> DIGESTS = ThreadLocal.withInitial(Digests::new);
+
+        final MessageDigest md5 = getDigest("MD5");
+        final MessageDigest sha1 = getDigest("SHA-1");
+        /**
+         * 摘要输出缓冲区，SHA-1 为 20 字节
+         */
+        private final byte[] out = new byte[20];
+        /**
+         * 命名空间字节缓冲区
+         */
+        private final byte[] namespaceBytes = new byte[16];
+
+        static Digests current() {
+            return DIGESTS.get();
+        }
+
+        private static MessageDigest getDigest(String algorithm) {
+            try {
+                return MessageDigest.getInstance(algorithm);
+            } catch (NoSuchAlgorithmException nsae) {
+                throw new InternalError(algorithm + " not supported", nsae);
+            }
+        }
+
+        void updateNamespace(MessageDigest md, UUID namespace) {
+            if (namespace == null) {
+                return;
+            }
+            for (int i = 0; i < 8; i++) {
+                namespaceBytes[i] = (byte) (namespace.mostSigBits >>> (56 - i * 8));
+                namespaceBytes[i + 8] = (byte) (namespace.leastSigBits >>> (56 - i * 8));
+            }
+            md.update(namespaceBytes, 0, 16);
+        }
+
+        /**
+         * 完成摘要，取前 16 字节并设置版本和变体
+         *
+         * @param md      摘要
+         * @param version 版本位，如 0x30、0x50
+         * @return UUID
+         */
+        UUID digestUUID(MessageDigest md, int version) {
+            try {
+                md.digest(out, 0, md.getDigestLength());
+            } catch (DigestException e) {
+                throw new InternalError(md.getAlgorithm() + " digest failed", e);
+            }
+            long msb = 0;
+            long lsb = 0;
+            for (int i = 0; i < 8; i++) {
+                msb = (msb << 8) | (out[i] & 0xff);
+                lsb = (lsb << 8) | (out[i + 8] & 0xff);
+            }
+            msb = (msb & 0xFFFFFFFFFFFF0FFFL) | ((long) version << 8);
+            return new UUID(msb, variantBits(lsb));
+        }
+    }
+
+    /**
+     * 基于时间的 UUID 状态
+     */
+    private static class TimeHolder {
+        /**
+         * UUID 纪元（1582-10-15）到 Unix 纪元的 100 纳秒数
+         */
+        static final long GREGORIAN_OFFSET = 0x01B21DD213814000L;
+        /**
+         * 每毫秒的 100 纳秒数
+         */
+        static final long TICKS_PER_MILLI = 10000L;
+        /**
+         * 变体、14 位时钟序列与 48 位节点值，启动时随机生成
+         */
+        static final long CLOCK_SEQ_AND_NODE;
+        /**
+         * 类型 7 状态：Unix 毫秒数 << 12 | 计数器
+         */
+        static final AtomicLong EPOCH_STATE = new AtomicLong();
+        /**
+         * 类型 1、6 状态：上次使用的 100 纳秒时间戳
+         */
+        static final AtomicLong GREGORIAN_TICKS = new AtomicLong();
+
+        static {
+            long random = Holder.numberGenerator.nextLong();
+            // 随机节点值需设置多播位
+            CLOCK_SEQ_AND_NODE = variantBits(random | 0x0000010000000000L);
+        }
+
+        /**
+         * 新的毫秒计数器从 0~2047 随机开始，保留一半空间用于递增；种子取自线程私有的 {@link EntropyBuffer}，不可预测
+         */
+        static long nextEpochState() {
+            for (; ; ) {
+                long prev = EPOCH_STATE.get();
+                long now = SystemClock.now();
+                long next = now > (prev >>> 12) ? now << 12 | (EntropyBuffer.current().nextLong() & 0x7FF) : prev + 1;
+                if (EPOCH_STATE.compareAndSet(prev, next)) {
+                    return next;
+                }
+            }
+        }
+
+        /**
+         * 毫秒内用 100 纳秒位递增，保证单调
+         */
+        static long nextGregorianTicks() {
+            for (; ; ) {
+                long prev = GREGORIAN_TICKS.get();
+                long now = SystemClock.now() * TICKS_PER_MILLI + GREGORIAN_OFFSET;
+                long next = now > prev ? now : prev + 1;
+                if (GREGORIAN_TICKS.compareAndSet(prev, next)) {
+                    return next;
+                }
+            }
+        }
+    }
+
     /**
      * 私有构造函数
      *
@@ -118,19 +332,139 @@ public final class UUID implements Serializable, Comparable<UUID> {
      * @return 随机生成的 {@code UUID}
      */
     public static UUID randomUUID(boolean isSecure) {
-        final Random ng = isSecure ? Holder.numberGenerator : getRandom();
+        long mostSigBits;
+        long leastSigBits;
+        if (isSecure) {
+            EntropyBuffer buffer = EntropyBuffer.current();
+            mostSigBits = buffer.nextLong();
+            leastSigBits = buffer.nextLong();
+        } else {
+            ThreadLocalRandom random = getRandom();
+            mostSigBits = random.nextLong();
+            leastSigBits = random.nextLong();
+        }
+        return new UUID(version4Bits(mostSigBits), variantBits(leastSigBits));
+    }
+
+    /**
+     * 批量获取类型 4（伪随机生成的）UUID，使用加密的强伪随机数生成器。
+     *
+     * @param n 数量
+     * @return 随机生成的 {@code UUID} 数组
+     * @see #randomUUIDs(int, boolean)
+     */
+    public static UUID[] randomUUIDs(int n) {
+        return randomUUIDs(n, true);
+    }
+
+    /**
+     * 批量获取类型 4（伪随机生成的）UUID。
+     *
+     * @param n        数量
+     * @param isSecure 是否使用{@link SecureRandom}，如果是可以获得更安全的随机码，否则可以得到更好的性能
+     * @return 随机生成的 {@code UUID} 数组
+     */
+    public static UUID[] randomUUIDs(int n, boolean isSecure) {
+        long[] bits = randomBits(new long[n * 2], isSecure);
+        UUID[] uuids = new UUID[n];
+        for (int i = 0; i < n; i++) {
+            uuids[i] = new UUID(bits[i * 2], bits[i * 2 + 1]);
+        }
+        return uuids;
+    }
+
+    /**
+     * 批量生成类型 4 UUID 的位值，按 msb、lsb 成对写入数组，不创建 {@code UUID} 对象。
+     * <p>
+     * 安全模式下每个线程持有独立的 {@link SecureRandom} 和熵缓冲区，按块读取随机数，多线程之间不争用同一把锁。
+     *
+     * @param dest     目标数组，长度须为偶数
+     * @param isSecure 是否使用{@link SecureRandom}
+     * @return 目标数组
+     */
+    public static long[] randomBits(long[] dest, boolean isSecure) {
+        if ((dest.length & 1) != 0) {
+            throw new IllegalArgumentException("dest length must be even: " + dest.length);
+        }
+        if (isSecure) {
+            EntropyBuffer.current().nextLongs(dest);
+        } else {
+            ThreadLocalRandom random = getRandom();
+            for (int i = 0; i < dest.length; i++) {
+                dest[i] = random.nextLong();
+            }
+        }
+        for (int i = 0; i < dest.length; i += 2) {
+            dest[i] = version4Bits(dest[i]);
+            dest[i + 1] = variantBits(dest[i + 1]);
+        }
+        return dest;
+    }
+
+    /**
+     * 设置版本 4
+     *
+     * @param mostSigBits 最高有效位
+     * @return 设置版本后的最高有效位
+     */
+    private static long version4Bits(long mostSigBits) {
+        return (mostSigBits & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+    }
+
+    /**
+     * 获取类型 7（基于 Unix 毫秒时间戳）UUID 的静态工厂，时间取自 {@link SystemClock#now()}。
+     * <p>
+     * 布局：48 位 Unix 毫秒数、4 位版本、12 位计数器、2 位变体、62 位随机数，随机数取自线程私有的 {@link EntropyBuffer}。
+     * 同一毫秒内计数器递增，计数器用尽时顺延到下一毫秒，保证同一 JVM 内生成的 UUID 单调递增，适合作为数据库主键。
+     *
+     * @return 按时间排序的 {@code UUID}
+     */
+    public static UUID timeOrderedEpochUUID() {
+        long state = TimeHolder.nextEpochState();
+        long mostSigBits = (state >>> 12) << 16 | 0x7000L | (state & 0x0FFFL);
+        return new UUID(mostSigBits, variantBits(EntropyBuffer.current().nextLong()));
+    }
 
-        byte[] randomBytes = new byte[16];
-        ng.nextBytes(randomBytes);
-        // clear version
-        randomBytes[6] &= 0x0f;
-        // set to version 4
-        randomBytes[6] |= 0x40;
-        // clear variant
-        randomBytes[8] &= 0x3f;
-        // set to IETF variant
-        randomBytes[8] |= 0x80;
-        return new UUID(randomBytes);
+    /**
+     * 获取类型 6（重排的基于时间）UUID 的静态工厂，时间取自 {@link SystemClock#now()}。
+     * <p>
+     * 与类型 1 字段相同，但时间戳按高位到低位排列，字符串和数值顺序即生成顺序。
+     *
+     * @return 按时间排序的 {@code UUID}
+     */
+    public static UUID timeOrderedUUID() {
+        long ts = TimeHolder.nextGregorianTicks();
+        long mostSigBits = (ts >>> 28) << 32
+                | ((ts >>> 12) & 0xFFFFL) << 16
+                | 0x6000L
+                | (ts & 0x0FFFL);
+        return new UUID(mostSigBits, TimeHolder.CLOCK_SEQ_AND_NODE);
+    }
+
+    /**
+     * 获取类型 1（基于时间）UUID 的静态工厂，时间取自 {@link SystemClock#now()}。
+     * <p>
+     * 节点值为启动时随机生成的 48 位数（设置多播位，避免与真实 MAC 地址冲突）。
+     *
+     * @return 基于时间的 {@code UUID}
+     */
+    public static UUID timeBasedUUID() {
+        long ts = TimeHolder.nextGregorianTicks();
+        long mostSigBits = (ts & 0xFFFFFFFFL) << 32
+                | ((ts >>> 32) & 0xFFFFL) << 16
+                | 0x1000L
+                | ((ts >>> 48) & 0x0FFFL);
+        return new UUID(mostSigBits, TimeHolder.CLOCK_SEQ_AND_NODE);
+    }
+
+    /**
+     * 设置 IETF 变体
+     *
+     * @param leastSigBits 最低有效位
+     * @return 设置变体后的最低有效位
+     */
+    private static long variantBits(long leastSigBits) {
+        return (leastSigBits & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
     }
 
     /**
@@ -140,22 +474,92 @@ public final class UUID implements Serializable, Comparable<UUID> {
      * @return 根据指定数组生成的 {@code UUID}
      */
     public static UUID nameUUIDFromBytes(byte[] name) {
-        MessageDigest md;
-        try {
-            md = MessageDigest.getInstance("MD5");
-        } catch (NoSuchAlgorithmException nsae) {
-            throw new InternalError("MD5 not supported", nsae);
+        return nameUUIDFromBytes(name, 0, name.length);
+    }
+
+    /**
+     * 根据指定的字节数组区间获取类型 3（基于名称的）UUID 的静态工厂。
+     *
+     * @param name   用于构造 UUID 的字节数组
+     * @param offset 起始下标
+     * @param length 长度
+     * @return 根据指定数组生成的 {@code UUID}
+     */
+    public static UUID nameUUIDFromBytes(byte[] name, int offset, int length) {
+        Digests digests = Digests.current();
+        digests.md5.update(name, offset, length);
+        return digests.digestUUID(digests.md5, 0x30);
+    }
+
+    /**
+     * 根据指定 {@link ByteBuffer} 的剩余字节获取类型 3（基于名称的）UUID 的静态工厂，读取后 position 移动到 limit。
+     *
+     * @param name 用于构造 UUID 的字节
+     * @return 根据指定字节生成的 {@code UUID}
+     */
+    public static UUID nameUUIDFromBytes(ByteBuffer name) {
+        Digests digests = Digests.current();
+        digests.md5.update(name);
+        return digests.digestUUID(digests.md5, 0x30);
+    }
+
+    /**
+     * 根据命名空间和名称获取类型 5（基于名称，SHA-1）UUID 的静态工厂。
+     *
+     * @param namespace 命名空间，如 {@link #NAMESPACE_DNS}，为 {@code null} 时只对名称做摘要
+     * @param name      名称，按 UTF-8 编码
+     * @return 根据指定名称生成的 {@code UUID}
+     */
+    public static UUID sha1UUIDFromName(UUID namespace, String name) {
+        return sha1UUIDFromBytes(namespace, name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 根据命名空间和字节数组获取类型 5（基于名称，SHA-1）UUID 的静态工厂。
+     *
+     * @param namespace 命名空间，为 {@code null} 时只对名称做摘要
+     * @param name      用于构造 UUID 的字节数组
+     * @return 根据指定数组生成的 {@code UUID}
+     */
+    public static UUID sha1UUIDFromBytes(UUID namespace, byte[] name) {
+        return sha1UUIDFromBytes(namespace, name, 0, name.length);
+    }
+
+    /**
+     * 根据命名空间和字节数组区间获取类型 5（基于名称，SHA-1）UUID 的静态工厂。
+     *
+     * @param namespace 命名空间，为 {@code null} 时只对名称做摘要
+     * @param name      用于构造 UUID 的字节数组
+     * @param offset    起始下标
+     * @param length    长度
+     * @return 根据指定数组生成的 {@code UUID}
+     */
+    public static UUID sha1UUIDFromBytes(UUID namespace, byte[] name, int offset, int length) {
+        // 先校验区间，否则命名空间已写入线程私有的摘要，异常后会污染下一次调用
+        if (offset < 0 || length < 0 || offset > name.length - length) {
+            throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length + ", size: " + name.length);
+        }
+        Digests digests = Digests.current();
+        digests.updateNamespace(digests.sha1, namespace);
+        digests.sha1.update(name, offset, length);
+        return digests.digestUUID(digests.sha1, 0x50);
+    }
+
+    /**
+     * 根据命名空间和 {@link ByteBuffer} 的剩余字节获取类型 5（基于名称，SHA-1）UUID 的静态工厂，读取后 position 移动到 limit。
+     *
+     * @param namespace 命名空间，为 {@code null} 时只对名称做摘要
+     * @param name      用于构造 UUID 的字节
+     * @return 根据指定字节生成的 {@code UUID}
+     */
+    public static UUID sha1UUIDFromBytes(UUID namespace, ByteBuffer name) {
+        if (name == null) {
+            throw new IllegalArgumentException("name require not null.");
         }
-        byte[] md5Bytes = md.digest(name);
-        // clear version
-        md5Bytes[6] &= 0x0f;
-        // set to version 3
-        md5Bytes[6] |= 0x30;
-        // clear variant
-        md5Bytes[8] &= 0x3f;
-        // set to IETF variant
-        md5Bytes[8] |= 0x80;
-        return new UUID(md5Bytes);
+        Digests digests = Digests.current();
+        digests.updateNamespace(digests.sha1, namespace);
+        digests.sha1.update(name);
+        return digests.digestUUID(digests.sha1, 0x50);
     }
 
     /**
@@ -166,6 +570,83 @@ public final class UUID implements Serializable, Comparable<UUID> {
      * @throws IllegalArgumentException 如果 name 与 {@link #toString} 中描述的字符串表示形式不符抛出此异常
      */
     public static UUID fromString(String name) {
+        return fromString(name, 0, name.length());
+    }
+
+    /**
+     * 解析字符序列中指定区间的 {@code UUID} 字符串，支持带 '-' 和不带 '-' 两种形式。
+     * <p>
+     * 标准长度（32、36）一次遍历完成解析，不产生中间对象。
+     *
+     * @param name  字符序列
+     * @param start 起始下标（包含）
+     * @param end   结束下标（不包含）
+     * @return 具有指定值的 {@code UUID}
+     * @throws IllegalArgumentException 如果字符串不是合法的 UUID 抛出此异常
+     */
+    public static UUID fromString(CharSequence name, int start, int end) {
+        int len = end - start;
+        if (len == STANDARD_LENGTH && name.charAt(start + 8) == '-' && name.charAt(start + 13) == '-'
+                && name.charAt(start + 18) == '-' && name.charAt(start + 23) == '-') {
+            long mostSigBits = parseHex(name, start, start + 8, start, end) << 32
+                    | parseHex(name, start + 9, start + 13, start, end) << 16
+                    | parseHex(name, start + 14, start + 18, start, end);
+            long leastSigBits = parseHex(name, start + 19, start + 23, start, end) << 48
+                    | parseHex(name, start + 24, end, start, end);
+            return new UUID(mostSigBits, leastSigBits);
+        }
+        if (len == SIMPLE_LENGTH && !containsDash(name, start, end)) {
+            return new UUID(parseHex(name, start, start + 16, start, end), parseHex(name, start + 16, end, start, end));
+        }
+        return fromNonStandardString(name.subSequence(start, end).toString());
+    }
+
+    /**
+     * 长度为 32 的区间可能是各段长度不固定的带 '-' 形式，如 "0000001-0002-0003-0004-000000005"，不能按简单形式解析
+     */
+    private static boolean containsDash(CharSequence s, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (s.charAt(i) == '-') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 解析 ASCII 字节数组中的 {@code UUID} 字符串，支持带 '-' 和不带 '-' 两种形式。
+     *
+     * @param src    字节数组
+     * @param offset 起始下标
+     * @param length 长度，32 或 36
+     * @return 具有指定值的 {@code UUID}
+     * @throws IllegalArgumentException 如果字节不是合法的 UUID 抛出此异常
+     */
+    public static UUID fromAscii(byte[] src, int offset, int length) {
+        if (length == STANDARD_LENGTH) {
+            if (src[offset + 8] != '-' || src[offset + 13] != '-' || src[offset + 18] != '-' || src[offset + 23] != '-') {
+                throw invalid(src, offset, length);
+            }
+            long mostSigBits = parseHex(src, offset, offset + 8, offset, length) << 32
+                    | parseHex(src, offset + 9, offset + 13, offset, length) << 16
+                    | parseHex(src, offset + 14, offset + 18, offset, length);
+            long leastSigBits = parseHex(src, offset + 19, offset + 23, offset, length) << 48
+                    | parseHex(src, offset + 24, offset + length, offset, length);
+            return new UUID(mostSigBits, leastSigBits);
+        }
+        if (length == SIMPLE_LENGTH) {
+            return new UUID(parseHex(src, offset, offset + 16, offset, length), parseHex(src, offset + 16, offset + length, offset, length));
+        }
+        throw invalid(src, offset, length);
+    }
+
+    /**
+     * 兼容各段长度不固定的字符串形式，如 "1-2-3-4-5"
+     *
+     * @param name UUID 字符串
+     * @return 具有指定值的 {@code UUID}
+     */
+    private static UUID fromNonStandardString(String name) {
         String[] components = name.split("-");
         if (components.length != 5) {
             throw new IllegalArgumentException("Invalid UUID string: " + name);
@@ -187,6 +668,50 @@ public final class UUID implements Serializable, Comparable<UUID> {
         return new UUID(mostSigBits, leastSigBits);
     }
 
+    /**
+     * 解析 16 进制数字
+     *
+     * @param s     字符序列
+     * @param from  数字起始下标
+     * @param to    数字结束下标
+     * @param start UUID 字符串起始下标，用于异常信息
+     * @param end   UUID 字符串结束下标，用于异常信息
+     * @return 数值
+     */
+    private static long parseHex(CharSequence s, int from, int to, int start, int end) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            int digit = c < 128 ? HEX_VALUES[c] : -1;
+            if (digit < 0) {
+                throw invalid(s, start, end);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static long parseHex(byte[] src, int from, int to, int offset, int length) {
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int b = src[i];
+            int digit = b >= 0 ? HEX_VALUES[b] : -1;
+            if (digit < 0) {
+                throw invalid(src, offset, length);
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private static IllegalArgumentException invalid(CharSequence s, int start, int end) {
+        return new IllegalArgumentException("Invalid UUID string: " + s.subSequence(start, end));
+    }
+
+    private static IllegalArgumentException invalid(byte[] src, int offset, int length) {
+        return new IllegalArgumentException("Invalid UUID string: " + new String(src, offset, length, StandardCharsets.US_ASCII));
+    }
+
     private static ThreadLocalRandom getRandom() {
         return ThreadLocalRandom.current();
     }
@@ -220,6 +745,9 @@ public final class UUID implements Serializable, Comparable<UUID> {
      * <li>2 DCE 安全 UUID
      * <li>3 基于名称的 UUID
      * <li>4 随机生成的 UUID
+     * <li>5 基于名称的 UUID（SHA-1）
+     * <li>6 重排的基于时间的 UUID
+     * <li>7 基于 Unix 毫秒时间戳的 UUID
      * </ul>
      *
      * @return 此 {@code UUID} 的版本号
@@ -260,20 +788,40 @@ public final class UUID implements Serializable, Comparable<UUID> {
      * 所得到的时间戳以 100 毫微秒为单位，从 UTC（通用协调时间） 1582 年 10 月 15 日零时开始。
      *
      * <p>
-     * 时间戳值仅在在基于时间的 UUID（其 version 类型为 1）中才有意义。<br>
+     * 时间戳值仅在在基于时间的 UUID（其 version 类型为 1、6、7）中才有意义，类型 7 由 Unix 毫秒数换算而来。<br>
      * 如果此 {@code UUID} 不是基于时间的 UUID，则此方法抛出 UnsupportedOperationException。
      *
      * @return 时间戳值
-     * @throws UnsupportedOperationException 如果此 {@code UUID} 不是 version 为 1 的 UUID。
+     * @throws UnsupportedOperationException 如果此 {@code UUID} 不是 version 为 1、6、7 的 UUID。
      */
     public long timestamp() {
-        if (version() != 1) {
-            throw new UnsupportedOperationException("Not a time-based UUID");
+        switch (version()) {
+            case 1:
+                return (mostSigBits & 0x0FFFL) << 48
+                        | ((mostSigBits >> 16) & 0x0FFFFL) << 32
+                        | mostSigBits >>> 32;
+            case 6:
+                return (mostSigBits >>> 32) << 28
+                        | ((mostSigBits >>> 16) & 0x0FFFFL) << 12
+                        | (mostSigBits & 0x0FFFL);
+            case 7:
+                return (mostSigBits >>> 16) * TimeHolder.TICKS_PER_MILLI + TimeHolder.GREGORIAN_OFFSET;
+            default:
+                throw new UnsupportedOperationException("Not a time-based UUID");
         }
+    }
 
-        return (mostSigBits & 0x0FFFL) << 48
-                | ((mostSigBits >> 16) & 0x0FFFFL) << 32
-                | mostSigBits >>> 32;
+    /**
+     * 与此 UUID 相关联的 Unix 毫秒时间戳。
+     *
+     * @return 从 1970-01-01T00:00:00Z 开始的毫秒数
+     * @throws UnsupportedOperationException 如果此 {@code UUID} 不是 version 为 1、6、7 的 UUID。
+     */
+    public long epochMillis() {
+        if (version() == 7) {
+            return mostSigBits >>> 16;
+        }
+        return Math.floorDiv(timestamp() - TimeHolder.GREGORIAN_OFFSET, TimeHolder.TICKS_PER_MILLI);
     }
 
     /**
@@ -282,15 +830,13 @@ public final class UUID implements Serializable, Comparable<UUID> {
      * <p>
      * 14 位的时钟序列值根据此 UUID 的 clock_seq 字段构造。clock_seq 字段用于保证在基于时间的 UUID 中的时间唯一性。
      * <p>
-     * {@code clockSequence} 值仅在基于时间的 UUID（其 version 类型为 1）中才有意义。 如果此 UUID 不是基于时间的 UUID，则此方法抛出 UnsupportedOperationException。
+     * {@code clockSequence} 值仅在基于时间的 UUID（其 version 类型为 1、6）中才有意义。 如果此 UUID 不是此类 UUID，则此方法抛出 UnsupportedOperationException。
      *
      * @return 此 {@code UUID} 的时钟序列
-     * @throws UnsupportedOperationException 如果此 UUID 的 version 不为 1
+     * @throws UnsupportedOperationException 如果此 UUID 的 version 不为 1、6
      */
     public int clockSequence() {
-        if (version() != 1) {
-            throw new UnsupportedOperationException("Not a time-based UUID");
-        }
+        checkGregorianTimeBased();
 
         return (int) ((leastSigBits & 0x3FFF000000000000L) >>> 48);
     }
@@ -300,20 +846,25 @@ public final class UUID implements Serializable, Comparable<UUID> {
      *
      * <p> 48 位的节点值根据此 UUID 的 node 字段构造。此字段旨在用于保存机器的 IEEE 802 地址，该地址用于生成此 UUID 以保证空间唯一性。
      *
-     * <p> 节点值仅在基于时间的 UUID（其 version 类型为 1）中才有意义。<br>
-     * 如果此 UUID 不是基于时间的 UUID，则此方法抛出 UnsupportedOperationException。
+     * <p> 节点值仅在基于时间的 UUID（其 version 类型为 1、6）中才有意义。<br>
+     * 如果此 UUID 不是此类 UUID，则此方法抛出 UnsupportedOperationException。
      *
      * @return 此 {@code UUID} 的节点值
-     * @throws UnsupportedOperationException 如果此 UUID 的 version 不为 1
+     * @throws UnsupportedOperationException 如果此 UUID 的 version 不为 1、6
      */
     public long node() {
-        if (version() != 1) {
-            throw new UnsupportedOperationException("Not a time-based UUID");
-        }
+        checkGregorianTimeBased();
 
         return leastSigBits & 0x0000FFFFFFFFFFFFL;
     }
 
+    private void checkGregorianTimeBased() {
+        int version = version();
+        if (version != 1 && version != 6) {
+            throw new UnsupportedOperationException("Not a time-based UUID");
+        }
+    }
+
     // Object Inherited Methods
 
     /**
@@ -350,38 +901,173 @@ public final class UUID implements Serializable, Comparable<UUID> {
      * @return 此{@code UUID} 的字符串表现形式
      */
     public String toString(boolean isSimple) {
-        final StringBuilder builder = new StringBuilder(isSimple ? 32 : 36);
-        builder.append(digits(mostSigBits >> 32, 8));
+        char[] chars = new char[isSimple ? SIMPLE_LENGTH : STANDARD_LENGTH];
+        toChars(isSimple, chars, 0);
+        return new String(chars);
+    }
+
+    /**
+     * 将此 {@code UUID} 的字符串表现形式写入字符数组
+     *
+     * @param isSimple 是否简单模式，简单模式为不带 '-' 的 UUID 字符串
+     * @param dest     目标数组
+     * @param offset   起始下标
+     * @return 写入的字符数，32 或 36
+     */
+    public int toChars(boolean isSimple, char[] dest, int offset) {
+        int i = offset;
+        i = hexChars(mostSigBits >>> 32, 8, dest, i);
         if (!isSimple) {
-            builder.append("-");
+            dest[i++] = '-';
         }
-        builder.append(digits(mostSigBits >> 16, 4));
+        i = hexChars(mostSigBits >>> 16, 4, dest, i);
         if (!isSimple) {
-            builder.append("-");
+            dest[i++] = '-';
         }
-        builder.append(digits(mostSigBits, 4));
+        i = hexChars(mostSigBits, 4, dest, i);
         if (!isSimple) {
-            builder.append("-");
+            dest[i++] = '-';
         }
-        builder.append(digits(leastSigBits >> 48, 4));
+        i = hexChars(leastSigBits >>> 48, 4, dest, i);
         if (!isSimple) {
-            builder.append("-");
+            dest[i++] = '-';
         }
-        builder.append(digits(leastSigBits, 12));
+        i = hexChars(leastSigBits, 12, dest, i);
+        return i - offset;
+    }
 
-        return builder.toString();
+    /**
+     * 将此 {@code UUID} 的字符串表现形式以 ASCII 编码写入字节数组
+     *
+     * @param isSimple 是否简单模式，简单模式为不带 '-' 的 UUID 字符串
+     * @param dest     目标数组
+     * @param offset   起始下标
+     * @return 写入的字节数，32 或 36
+     */
+    public int toAscii(boolean isSimple, byte[] dest, int offset) {
+        int i = offset;
+        i = hexBytes(mostSigBits >>> 32, 8, dest, i);
+        if (!isSimple) {
+            dest[i++] = '-';
+        }
+        i = hexBytes(mostSigBits >>> 16, 4, dest, i);
+        if (!isSimple) {
+            dest[i++] = '-';
+        }
+        i = hexBytes(mostSigBits, 4, dest, i);
+        if (!isSimple) {
+            dest[i++] = '-';
+        }
+        i = hexBytes(leastSigBits >>> 48, 4, dest, i);
+        if (!isSimple) {
+            dest[i++] = '-';
+        }
+        i = hexBytes(leastSigBits, 12, dest, i);
+        return i - offset;
     }
 
     /**
-     * 返回指定数字的 16 进制值
+     * 将此 {@code UUID} 的字符串表现形式追加到 {@link Appendable}
      *
-     * @param val
-     * @param digits
-     * @return
+     * @param out      输出目标
+     * @param isSimple 是否简单模式，简单模式为不带 '-' 的 UUID 字符串
+     * @param <A>      输出目标类型
+     * @return 输出目标
+     * @throws IOException 输出异常
+     */
+    public <A extends Appendable> A appendTo(A out, boolean isSimple) throws IOException {
+        if (out instanceof StringBuilder) {
+            appendTo((StringBuilder) out, isSimple);
+            return out;
+        }
+        appendHex(out, mostSigBits >>> 32, 8);
+        if (!isSimple) {
+            out.append('-');
+        }
+        appendHex(out, mostSigBits >>> 16, 4);
+        if (!isSimple) {
+            out.append('-');
+        }
+        appendHex(out, mostSigBits, 4);
+        if (!isSimple) {
+            out.append('-');
+        }
+        appendHex(out, leastSigBits >>> 48, 4);
+        if (!isSimple) {
+            out.append('-');
+        }
+        appendHex(out, leastSigBits, 12);
+        return out;
+    }
+
+    /**
+     * 将此 {@code UUID} 的字符串表现形式追加到 {@link StringBuilder}
+     *
+     * @param sb       输出目标
+     * @param isSimple 是否简单模式，简单模式为不带 '-' 的 UUID 字符串
+     * @return 输出目标
      */
-    private static String digits(long val, int digits) {
-        long hi = 1L << (digits * 4);
-        return Long.toHexString(hi | (val & (hi - 1))).substring(1);
+    public StringBuilder appendTo(StringBuilder sb, boolean isSimple) {
+        int len = sb.length();
+        sb.setLength(len + (isSimple ? SIMPLE_LENGTH : STANDARD_LENGTH));
+        int i = len;
+        i = hexChars(mostSigBits >>> 32, 8, sb, i);
+        if (!isSimple) {
+            sb.setCharAt(i++, '-');
+        }
+        i = hexChars(mostSigBits >>> 16, 4, sb, i);
+        if (!isSimple) {
+            sb.setCharAt(i++, '-');
+        }
+        i = hexChars(mostSigBits, 4, sb, i);
+        if (!isSimple) {
+            sb.setCharAt(i++, '-');
+        }
+        i = hexChars(leastSigBits >>> 48, 4, sb, i);
+        if (!isSimple) {
+            sb.setCharAt(i++, '-');
+        }
+        hexChars(leastSigBits, 12, sb, i);
+        return sb;
+    }
+
+    /**
+     * 将指定数字的低 digits 个 16 进制位写入字符数组
+     *
+     * @param val    数值
+     * @param digits 位数
+     * @param dest   目标数组
+     * @param offset 起始下标
+     * @return 写入后的下标
+     */
+    private static int hexChars(long val, int digits, char[] dest, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            dest[i] = HEX_DIGITS[(int) val & 0x0f];
+            val >>>= 4;
+        }
+        return offset + digits;
+    }
+
+    private static int hexChars(long val, int digits, StringBuilder dest, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            dest.setCharAt(i, HEX_DIGITS[(int) val & 0x0f]);
+            val >>>= 4;
+        }
+        return offset + digits;
+    }
+
+    private static int hexBytes(long val, int digits, byte[] dest, int offset) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            dest[i] = (byte) HEX_DIGITS[(int) val & 0x0f];
+            val >>>= 4;
+        }
+        return offset + digits;
+    }
+
+    private static void appendHex(Appendable out, long val, int digits) throws IOException {
+        for (int shift = (digits - 1) * 4; shift >= 0; shift -= 4) {
+            out.append(HEX_DIGITS[(int) (val >>> shift) & 0x0f]);
+        }
     }
 
     /**
@@ -0,0 +1,173 @@
+package org.kerw1n.javautil.serialize;
+
+import org.kerw1n.javautil.file.ByteBufferPool;
+
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 写入 buffer 的输出流
+ * <p>
+ * 使用池化 buffer 时，容量不足从池中换取更大的 buffer，用完后 {@link #release()} 归还或 {@link #detach()} 取走；close() 不释放 buffer。
+ * 写入调用方提供的 buffer 时不扩容，剩余空间不足抛出 {@link BufferOverflowException}。非线程安全。
+ *
+ * @author kerw1n
+ */
+final class BufferOutput extends OutputStream {
+
+    private final ByteBufferPool pool;
+    private ByteBuffer buf;
+
+    BufferOutput(ByteBufferPool pool, int initialCapacity) {
+        this.pool = pool;
+        this.buf = pool.acquire(initialCapacity);
+    }
+
+    /**
+     * 直接写入调用方提供的 buffer，从其 position 开始
+     */
+    BufferOutput(ByteBuffer target) {
+        this.pool = null;
+        this.buf = target;
+    }
+
+    @Override
+    public void write(int b) {
+        ensure(1);
+        buf.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        ensure(len);
+        buf.put(b, off, len);
+    }
+
+    void writeFloat(float v) {
+        ensure(4);
+        buf.putFloat(v);
+    }
+
+    void writeDouble(double v) {
+        ensure(8);
+        buf.putDouble(v);
+    }
+
+    /**
+     * 无符号 varint，每字节 7 位
+     */
+    void writeVarInt(int v) {
+        ensure(5);
+        while ((v & ~0x7F) != 0) {
+            buf.put((byte) (v & 0x7F | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    void writeVarLong(long v) {
+        ensure(10);
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte) (v & 0x7F | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    /**
+     * 有符号数按 zigzag 编码，绝对值小的负数同样占用较少字节
+     */
+    void writeZigZagInt(int v) {
+        writeVarInt(v << 1 ^ v >> 31);
+    }
+
+    void writeZigZagLong(long v) {
+        writeVarLong(v << 1 ^ v >> 63);
+    }
+
+    /**
+     * 字符数 + 编码字节数 + 逐 char 的 UTF-8 编码（同 {@link java.io.DataOutput#writeUTF}，代理对各占 3 字节）
+     */
+    void writeString(String s) {
+        int len = s.length();
+        writeVarInt(len);
+        int utfLen = 0;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            utfLen += c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+        writeVarInt(utfLen);
+        ensure(utfLen);
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf.put((byte) c);
+            } else if (c < 0x800) {
+                buf.put((byte) (0xC0 | c >> 6));
+                buf.put((byte) (0x80 | c & 0x3F));
+            } else {
+                buf.put((byte) (0xE0 | c >> 12));
+                buf.put((byte) (0x80 | c >> 6 & 0x3F));
+                buf.put((byte) (0x80 | c & 0x3F));
+            }
+        }
+    }
+
+    int size() {
+        return buf.position();
+    }
+
+    /**
+     * 已写入的数据，position 为 0，limit 为已写入的长度；release() 后不可再使用
+     */
+    ByteBuffer flip() {
+        ByteBuffer b = buf.duplicate();
+        b.flip();
+        return b;
+    }
+
+    byte[] toByteArray() {
+        byte[] bytes = new byte[buf.position()];
+        flip().get(bytes);
+        return bytes;
+    }
+
+    /**
+     * 取走池化的 buffer，position 为 0，limit 为已写入的长度；由调用方归还到池中
+     */
+    ByteBuffer detach() {
+        ByteBuffer b = buf;
+        buf = null;
+        b.flip();
+        return b;
+    }
+
+    /**
+     * 归还池化的 buffer，之后不可再使用
+     */
+    void release() {
+        if (buf != null && pool != null) {
+            pool.release(buf);
+        }
+        buf = null;
+    }
+
+    private void ensure(int n) {
+        if (buf.remaining() >= n) {
+            return;
+        }
+        if (pool == null) {
+            throw new BufferOverflowException();
+        }
+        long required = (long) buf.position() + n;
+        if (required > Integer.MAX_VALUE) {
+            throw new OutOfMemoryError("Serialized size exceeds 2GB");
+        }
+        ByteBuffer bigger = pool.acquire((int) Math.min(Math.max(required, (long) buf.capacity() << 1), Integer.MAX_VALUE));
+        buf.flip();
+        bigger.put(buf);
+        pool.release(buf);
+        buf = bigger;
+    }
+}
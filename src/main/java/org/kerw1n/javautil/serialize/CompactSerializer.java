@@ -0,0 +1,778 @@
+package org.kerw1n.javautil.serialize;
+
+import org.kerw1n.javautil.file.ByteBufferPool;
+
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.io.StreamCorruptedException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 紧凑的二进制序列化
+ * <p>
+ * 基本类型、包装类型、String、Date、枚举、数组及 java.util 中带无参构造器的集合直接编码，整数使用 zigzag varint；
+ * Arrays.asList、Collections.unmodifiable*、empty*、singleton* 等 java.util 中不能按原类型重建的集合视图，
+ * 按接口写为 ArrayList、LinkedHashSet、TreeSet、LinkedHashMap 或 TreeMap，读取后得到可修改的普通集合。
+ * 通过 {@link #register(Class, int)} 注册的类只写入类 ID 与各字段的值，不写类描述。写入时使用池化的 buffer，读写 ByteBuffer 时直接在调用方的 buffer 上编解码。
+ * <p>
+ * 其他实现了 {@link Serializable} 的对象需通过 {@link #setJdkFallback(boolean)} 开启后才回退为 JDK 序列化，默认抛出 {@link NotSerializableException}。
+ * 开启后读取时会对数据中的内容执行完整的 {@link java.io.ObjectInputStream} 反序列化，只应用于可信的数据。
+ * 读取时长度前缀按剩余数据校验，损坏的数据抛出 {@link StreamCorruptedException}，不会按长度前缀分配超大数组。
+ * <p>
+ * 注册类需有无参构造器，按继承层次与字段名的顺序写入非 static、非 transient 字段；不支持循环引用，同一对象被多次引用时写入多份。
+ * 读写双方需以相同的 ID 注册相同的类。注册应在使用前完成，之后实例线程安全。
+ *
+ * @author kerw1n
+ */
+public class CompactSerializer implements Serializer {
+
+    private static final byte VERSION = 1;
+    private static final int INITIAL_CAPACITY = 256;
+
+    private static final byte NULL = 0;
+    private static final byte TRUE = 1;
+    private static final byte FALSE = 2;
+    private static final byte BYTE = 3;
+    private static final byte SHORT = 4;
+    private static final byte INT = 5;
+    private static final byte LONG = 6;
+    private static final byte FLOAT = 7;
+    private static final byte DOUBLE = 8;
+    private static final byte CHAR = 9;
+    private static final byte STRING = 10;
+    private static final byte DATE = 11;
+    private static final byte ENUM = 12;
+    private static final byte ARRAY = 13;
+    private static final byte COLLECTION = 14;
+    private static final byte MAP = 15;
+    private static final byte OBJECT = 16;
+    private static final byte JAVA = 17;
+
+    /**
+     * 按类名引用未注册的类
+     */
+    private static final int CLASS_BY_NAME = 0;
+
+    private final ConcurrentMap<Class<?>, ClassInfo> classMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, ClassInfo> idMap = new ConcurrentHashMap<>();
+    /**
+     * 未注册、按类名引用的类
+     */
+    private final ConcurrentMap<String, Class<?>> nameMap = new ConcurrentHashMap<>();
+    private volatile boolean jdkFallback;
+
+    /**
+     * 注册类
+     *
+     * @param type 类
+     * @param id   类 ID，不小于 0
+     * @return this
+     * @throws IllegalArgumentException ID 或类已注册为其他值，或类（枚举除外）没有无参构造器
+     */
+    public synchronized CompactSerializer register(Class<?> type, int id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Class id must not be negative: " + id);
+        }
+        ClassInfo byId = idMap.get(id);
+        if (byId != null && byId.type != type) {
+            throw new IllegalArgumentException("Class id " + id + " is already registered to " + byId.type.getName());
+        }
+        ClassInfo byType = classMap.get(type);
+        if (byType != null && byType.id != id) {
+            throw new IllegalArgumentException(type.getName() + " is already registered with id " + byType.id);
+        }
+        if (byId == null) {
+            if (!type.isEnum()) {
+                try {
+                    type.getDeclaredConstructor();
+                } catch (NoSuchMethodException e) {
+                    throw new IllegalArgumentException(type.getName() + " has no no-arg constructor");
+                }
+            }
+            ClassInfo info = new ClassInfo(type, id);
+            idMap.put(id, info);
+            classMap.put(type, info);
+        }
+        return this;
+    }
+
+    /**
+     * 是否允许未注册的 {@link Serializable} 对象回退为 JDK 序列化，默认不允许
+     * <p>
+     * 读取时同样需要开启；JDK 反序列化会实例化数据中指定的任意可序列化类，只应对可信的数据开启。
+     *
+     * @param enabled 是否允许
+     * @return this
+     */
+    public CompactSerializer setJdkFallback(boolean enabled) {
+        this.jdkFallback = enabled;
+        return this;
+    }
+
+    @Override
+    public byte[] serialize(Object obj) throws IOException {
+        BufferOutput out = new BufferOutput(ByteBufferPool.heap(), INITIAL_CAPACITY);
+        try {
+            out.write(VERSION);
+            writeValue(out, obj);
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    /**
+     * 直接写入 dest，数值按 BIG_ENDIAN 写入，dest 原有的字节序不变
+     */
+    @Override
+    public int serialize(Object obj, ByteBuffer dest) throws IOException {
+        int start = dest.position();
+        ByteOrder order = dest.order();
+        dest.order(ByteOrder.BIG_ENDIAN);
+        try {
+            BufferOutput out = new BufferOutput(dest);
+            out.write(VERSION);
+            writeValue(out, obj);
+        } catch (BufferOverflowException e) {
+            dest.position(start);
+            throw e;
+        } finally {
+            dest.order(order);
+        }
+        return dest.position() - start;
+    }
+
+    @Override
+    public ByteBuffer serialize(Object obj, ByteBufferPool pool) throws IOException {
+        BufferOutput out = new BufferOutput(pool, INITIAL_CAPACITY);
+        try {
+            out.write(VERSION);
+            writeValue(out, obj);
+            return out.detach();
+        } finally {
+            out.release();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        return deserialize(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * 直接读取 src，不复制数据
+     */
+    @Override
+    public Object deserialize(ByteBuffer src) throws IOException, ClassNotFoundException {
+        ByteOrder order = src.order();
+        src.order(ByteOrder.BIG_ENDIAN);
+        try {
+            if (src.get() != VERSION) {
+                throw new StreamCorruptedException("Unsupported format version");
+            }
+            return readValue(src);
+        } catch (BufferUnderflowException e) {
+            throw new StreamCorruptedException("Unexpected end of data");
+        } finally {
+            src.order(order);
+            src.position(src.limit());
+        }
+    }
+
+    // ------------------------------------------------------------ write
+
+    private void writeValue(BufferOutput out, Object v) throws IOException {
+        if (v == null) {
+            out.write(NULL);
+            return;
+        }
+        Class<?> type = v.getClass();
+        ClassInfo info;
+        Class<?> container;
+        if (type == String.class) {
+            out.write(STRING);
+            out.writeString((String) v);
+        } else if (type == Integer.class) {
+            out.write(INT);
+            out.writeZigZagInt((Integer) v);
+        } else if (type == Long.class) {
+            out.write(LONG);
+            out.writeZigZagLong((Long) v);
+        } else if (type == Boolean.class) {
+            out.write((Boolean) v ? TRUE : FALSE);
+        } else if (type == Double.class) {
+            out.write(DOUBLE);
+            out.writeDouble((Double) v);
+        } else if (type == Float.class) {
+            out.write(FLOAT);
+            out.writeFloat((Float) v);
+        } else if (type == Short.class) {
+            out.write(SHORT);
+            out.writeZigZagInt((Short) v);
+        } else if (type == Byte.class) {
+            out.write(BYTE);
+            out.write((Byte) v);
+        } else if (type == Character.class) {
+            out.write(CHAR);
+            out.writeVarInt((Character) v);
+        } else if (type == Date.class) {
+            out.write(DATE);
+            out.writeZigZagLong(((Date) v).getTime());
+        } else if (v instanceof Enum) {
+            out.write(ENUM);
+            writeClass(out, ((Enum<?>) v).getDeclaringClass());
+            out.writeVarInt(((Enum<?>) v).ordinal());
+        } else if (type.isArray()) {
+            out.write(ARRAY);
+            writeClass(out, type.getComponentType());
+            writeArray(out, v);
+        } else if ((info = classMap.get(type)) != null) {
+            out.write(OBJECT);
+            out.writeVarInt(info.id + 1);
+            for (Field f : info.fields()) {
+                writeField(out, f, v);
+            }
+        } else if (v instanceof Collection && (container = containerType(type, v)) != null) {
+            out.write(COLLECTION);
+            writeClass(out, container);
+            Collection<?> c = (Collection<?>) v;
+            out.writeVarInt(c.size());
+            for (Object e : c) {
+                writeValue(out, e);
+            }
+        } else if (v instanceof Map && (container = containerType(type, v)) != null) {
+            out.write(MAP);
+            writeClass(out, container);
+            Map<?, ?> m = (Map<?, ?>) v;
+            out.writeVarInt(m.size());
+            for (Map.Entry<?, ?> e : m.entrySet()) {
+                writeValue(out, e.getKey());
+                writeValue(out, e.getValue());
+            }
+        } else if (v instanceof Serializable && jdkFallback) {
+            out.write(JAVA);
+            byte[] bytes = JdkSerializer.getInstance().serialize(v);
+            out.writeVarInt(bytes.length);
+            out.write(bytes, 0, bytes.length);
+        } else {
+            throw new NotSerializableException(v instanceof Serializable
+                    ? type.getName() + " is not registered and JDK fallback is disabled" : type.getName());
+        }
+    }
+
+    /**
+     * 类引用：已注册的类写入 ID + 1，其他类写入 0 与类名
+     */
+    private void writeClass(BufferOutput out, Class<?> type) {
+        ClassInfo info = classMap.get(type);
+        if (info != null) {
+            out.writeVarInt(info.id + 1);
+        } else {
+            out.writeVarInt(CLASS_BY_NAME);
+            out.writeString(type.getName());
+        }
+    }
+
+    private void writeArray(BufferOutput out, Object array) throws IOException {
+        int len = Array.getLength(array);
+        out.writeVarInt(len);
+        if (array instanceof byte[]) {
+            out.write((byte[]) array, 0, len);
+        } else if (array instanceof int[]) {
+            for (int v : (int[]) array) {
+                out.writeZigZagInt(v);
+            }
+        } else if (array instanceof long[]) {
+            for (long v : (long[]) array) {
+                out.writeZigZagLong(v);
+            }
+        } else if (array instanceof double[]) {
+            for (double v : (double[]) array) {
+                out.writeDouble(v);
+            }
+        } else if (array instanceof float[]) {
+            for (float v : (float[]) array) {
+                out.writeFloat(v);
+            }
+        } else if (array instanceof short[]) {
+            for (short v : (short[]) array) {
+                out.writeZigZagInt(v);
+            }
+        } else if (array instanceof char[]) {
+            for (char v : (char[]) array) {
+                out.writeVarInt(v);
+            }
+        } else if (array instanceof boolean[]) {
+            for (boolean v : (boolean[]) array) {
+                out.write(v ? 1 : 0);
+            }
+        } else {
+            for (Object v : (Object[]) array) {
+                writeValue(out, v);
+            }
+        }
+    }
+
+    /**
+     * 基本类型字段直接写入值，不写类型标记
+     */
+    private void writeField(BufferOutput out, Field f, Object obj) throws IOException {
+        Class<?> type = f.getType();
+        try {
+            if (!type.isPrimitive()) {
+                writeValue(out, f.get(obj));
+            } else if (type == int.class) {
+                out.writeZigZagInt(f.getInt(obj));
+            } else if (type == long.class) {
+                out.writeZigZagLong(f.getLong(obj));
+            } else if (type == boolean.class) {
+                out.write(f.getBoolean(obj) ? 1 : 0);
+            } else if (type == double.class) {
+                out.writeDouble(f.getDouble(obj));
+            } else if (type == float.class) {
+                out.writeFloat(f.getFloat(obj));
+            } else if (type == short.class) {
+                out.writeZigZagInt(f.getShort(obj));
+            } else if (type == byte.class) {
+                out.write(f.getByte(obj));
+            } else {
+                out.writeVarInt(f.getChar(obj));
+            }
+        } catch (IllegalAccessException e) {
+            throw new InvalidClassException(f.getDeclaringClass().getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 写入时记录的集合类型，不能重建时返回 null
+     * <p>
+     * java.util 中带无参构造器的集合按原类型写入；Arrays.asList、Collections.unmodifiable* 等视图按接口换成对应的普通集合。
+     * 指定了比较器的有序集合与其他队列不支持。
+     */
+    private static Class<?> containerType(Class<?> type, Object v) {
+        if (type.getPackage() == null || !"java.util".equals(type.getPackage().getName())) {
+            return null;
+        }
+        Comparator<?> comparator = v instanceof SortedSet ? ((SortedSet<?>) v).comparator()
+                : v instanceof SortedMap ? ((SortedMap<?, ?>) v).comparator() : null;
+        if (comparator != null) {
+            return null;
+        }
+        if (Modifier.isPublic(type.getModifiers())) {
+            try {
+                if (Modifier.isPublic(type.getConstructor().getModifiers())) {
+                    return type;
+                }
+            } catch (NoSuchMethodException e) {
+                // 如 EnumMap，按接口写入
+            }
+        }
+        if (v instanceof List) {
+            return ArrayList.class;
+        } else if (v instanceof SortedSet) {
+            return TreeSet.class;
+        } else if (v instanceof Set) {
+            return LinkedHashSet.class;
+        } else if (v instanceof SortedMap) {
+            return TreeMap.class;
+        } else if (v instanceof Map) {
+            return LinkedHashMap.class;
+        } else if (v instanceof Queue) {
+            return null;
+        }
+        return ArrayList.class;
+    }
+
+    // ------------------------------------------------------------ read
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Object readValue(ByteBuffer in) throws IOException, ClassNotFoundException {
+        byte tag = in.get();
+        switch (tag) {
+            case NULL:
+                return null;
+            case TRUE:
+                return Boolean.TRUE;
+            case FALSE:
+                return Boolean.FALSE;
+            case BYTE:
+                return in.get();
+            case SHORT:
+                return (short) readZigZagInt(in);
+            case INT:
+                return readZigZagInt(in);
+            case LONG:
+                return readZigZagLong(in);
+            case FLOAT:
+                return in.getFloat();
+            case DOUBLE:
+                return in.getDouble();
+            case CHAR:
+                return (char) readVarInt(in);
+            case STRING:
+                return readString(in);
+            case DATE:
+                return new Date(readZigZagLong(in));
+            case ENUM: {
+                Class<?> type = readClass(in);
+                int ordinal = readVarInt(in);
+                Object[] constants = type.getEnumConstants();
+                if (constants == null || ordinal >= constants.length) {
+                    throw new InvalidClassException(type.getName(), "Invalid enum ordinal " + ordinal);
+                }
+                return constants[ordinal];
+            }
+            case ARRAY:
+                return readArray(in, readClass(in));
+            case OBJECT: {
+                ClassInfo info = idMap.get(readVarInt(in) - 1);
+                if (info == null) {
+                    throw new ClassNotFoundException("Unregistered class id");
+                }
+                Object obj = info.newInstance();
+                for (Field f : info.fields()) {
+                    readField(in, f, obj);
+                }
+                return obj;
+            }
+            case COLLECTION: {
+                Collection c = (Collection) newContainer(readClass(in), Collection.class);
+                int size = readLength(in, 1);
+                for (int i = 0; i < size; i++) {
+                    c.add(readValue(in));
+                }
+                return c;
+            }
+            case MAP: {
+                Map m = (Map) newContainer(readClass(in), Map.class);
+                int size = readLength(in, 2);
+                for (int i = 0; i < size; i++) {
+                    m.put(readValue(in), readValue(in));
+                }
+                return m;
+            }
+            case JAVA: {
+                if (!jdkFallback) {
+                    throw new InvalidClassException("JDK fallback is disabled");
+                }
+                byte[] bytes = new byte[readLength(in, 1)];
+                in.get(bytes);
+                return JdkSerializer.getInstance().deserialize(bytes);
+            }
+            default:
+                throw new StreamCorruptedException("Invalid type tag " + tag);
+        }
+    }
+
+    private Class<?> readClass(ByteBuffer in) throws IOException, ClassNotFoundException {
+        int ref = readVarInt(in);
+        if (ref != CLASS_BY_NAME) {
+            ClassInfo info = idMap.get(ref - 1);
+            if (info == null) {
+                throw new ClassNotFoundException("Unregistered class id " + (ref - 1));
+            }
+            return info.type;
+        }
+        String name = readString(in);
+        Class<?> type = nameMap.get(name);
+        if (type == null) {
+            type = primitiveClass(name);
+            if (type == null) {
+                type = Class.forName(name, false, classLoader());
+            }
+            nameMap.putIfAbsent(name, type);
+        }
+        return type;
+    }
+
+    private Object readArray(ByteBuffer in, Class<?> componentType) throws IOException, ClassNotFoundException {
+        // double、float 定长，其余元素至少占 1 字节
+        int len = readLength(in, componentType == double.class ? 8 : componentType == float.class ? 4 : 1);
+        if (componentType == byte.class) {
+            byte[] a = new byte[len];
+            in.get(a);
+            return a;
+        }
+        Object array = Array.newInstance(componentType, len);
+        if (componentType == int.class) {
+            int[] a = (int[]) array;
+            for (int i = 0; i < len; i++) {
+                a[i] = readZigZagInt(in);
+            }
+        } else if (componentType == long.class) {
+            long[] a = (long[]) array;
+            for (int i = 0; i < len; i++) {
+                a[i] = readZigZagLong(in);
+            }
+        } else if (componentType == double.class) {
+            double[] a = (double[]) array;
+            for (int i = 0; i < len; i++) {
+                a[i] = in.getDouble();
+            }
+        } else if (componentType == float.class) {
+            float[] a = (float[]) array;
+            for (int i = 0; i < len; i++) {
+                a[i] = in.getFloat();
+            }
+        } else if (componentType == short.class) {
+            short[] a = (short[]) array;
+            for (int i = 0; i < len; i++) {
+                a[i] = (short) readZigZagInt(in);
+            }
+        } else if (componentType == char.class) {
+            char[] a = (char[]) array;
+            for (int i = 0; i < len; i++) {
+                a[i] = (char) readVarInt(in);
+            }
+        } else if (componentType == boolean.class) {
+            boolean[] a = (boolean[]) array;
+            for (int i = 0; i < len; i++) {
+                a[i] = in.get() != 0;
+            }
+        } else {
+            Object[] a = (Object[]) array;
+            for (int i = 0; i < len; i++) {
+                Object value = readValue(in);
+                if (value != null && !componentType.isInstance(value)) {
+                    throw new StreamCorruptedException("Array element " + value.getClass().getName()
+                            + " is not a " + componentType.getName());
+                }
+                a[i] = value;
+            }
+        }
+        return array;
+    }
+
+    private void readField(ByteBuffer in, Field f, Object obj) throws IOException, ClassNotFoundException {
+        Class<?> type = f.getType();
+        try {
+            if (!type.isPrimitive()) {
+                f.set(obj, readValue(in));
+            } else if (type == int.class) {
+                f.setInt(obj, readZigZagInt(in));
+            } else if (type == long.class) {
+                f.setLong(obj, readZigZagLong(in));
+            } else if (type == boolean.class) {
+                f.setBoolean(obj, in.get() != 0);
+            } else if (type == double.class) {
+                f.setDouble(obj, in.getDouble());
+            } else if (type == float.class) {
+                f.setFloat(obj, in.getFloat());
+            } else if (type == short.class) {
+                f.setShort(obj, (short) readZigZagInt(in));
+            } else if (type == byte.class) {
+                f.setByte(obj, in.get());
+            } else {
+                f.setChar(obj, (char) readVarInt(in));
+            }
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            throw new InvalidClassException(f.getDeclaringClass().getName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 只重建 java.util 中的集合，避免按数据中的类名实例化任意类
+     */
+    private static Object newContainer(Class<?> type, Class<?> expected) throws InvalidClassException {
+        if (!expected.isAssignableFrom(type) || type.getPackage() == null
+                || !"java.util".equals(type.getPackage().getName())) {
+            throw new InvalidClassException(type.getName(), "Not a java.util " + expected.getSimpleName());
+        }
+        try {
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new InvalidClassException(type.getName(), e.toString());
+        }
+    }
+
+    /**
+     * 读取长度前缀，长度乘以每个元素至少占用的字节数不能超过剩余数据
+     */
+    private static int readLength(ByteBuffer in, int minBytes) throws StreamCorruptedException {
+        int len = readVarInt(in);
+        if (len < 0 || (long) len * minBytes > in.remaining()) {
+            throw new StreamCorruptedException("Invalid length " + len + ", remaining " + in.remaining());
+        }
+        return len;
+    }
+
+    private static int readVarInt(ByteBuffer in) throws StreamCorruptedException {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    private static long readVarLong(ByteBuffer in) throws StreamCorruptedException {
+        long v = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            v |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return v;
+            }
+        }
+        throw new StreamCorruptedException("Malformed varint");
+    }
+
+    private static int readZigZagInt(ByteBuffer in) throws StreamCorruptedException {
+        int v = readVarInt(in);
+        return v >>> 1 ^ -(v & 1);
+    }
+
+    private static long readZigZagLong(ByteBuffer in) throws StreamCorruptedException {
+        long v = readVarLong(in);
+        return v >>> 1 ^ -(v & 1);
+    }
+
+    private static String readString(ByteBuffer in) throws StreamCorruptedException {
+        int len = readVarInt(in);
+        int utfLen = readLength(in, 1);
+        // 每个字符至少占 1 字节
+        if (len < 0 || len > utfLen) {
+            throw new StreamCorruptedException("Invalid string length " + len + ", utf length " + utfLen);
+        }
+        char[] chars = new char[len];
+        if (utfLen == len) {
+            for (int i = 0; i < len; i++) {
+                chars[i] = (char) in.get();
+            }
+            return new String(chars);
+        }
+        for (int i = 0; i < len; i++) {
+            int b = in.get() & 0xFF;
+            if (b < 0x80) {
+                chars[i] = (char) b;
+            } else if (b < 0xE0) {
+                chars[i] = (char) ((b & 0x1F) << 6 | in.get() & 0x3F);
+            } else {
+                chars[i] = (char) ((b & 0x0F) << 12 | (in.get() & 0x3F) << 6 | in.get() & 0x3F);
+            }
+        }
+        return new String(chars);
+    }
+
+    private static Class<?> primitiveClass(String name) {
+        switch (name) {
+            case "int":
+                return int.class;
+            case "long":
+                return long.class;
+            case "double":
+                return double.class;
+            case "float":
+                return float.class;
+            case "short":
+                return short.class;
+            case "byte":
+                return byte.class;
+            case "char":
+                return char.class;
+            case "boolean":
+                return boolean.class;
+            default:
+                return null;
+        }
+    }
+
+    private static ClassLoader classLoader() {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        return loader != null ? loader : CompactSerializer.class.getClassLoader();
+    }
+
+    /**
+     * 注册类的信息，字段与构造器在首次使用时解析
+     */
+    private static final class ClassInfo {
+        final Class<?> type;
+        final int id;
+        private volatile Field[] fields;
+        private volatile Constructor<?> constructor;
+
+        ClassInfo(Class<?> type, int id) {
+            this.type = type;
+            this.id = id;
+        }
+
+        Field[] fields() throws InvalidClassException {
+            Field[] f = fields;
+            if (f == null) {
+                f = resolveFields();
+                fields = f;
+            }
+            return f;
+        }
+
+        Object newInstance() throws InvalidClassException {
+            try {
+                Constructor<?> c = constructor;
+                if (c == null) {
+                    c = type.getDeclaredConstructor();
+                    c.setAccessible(true);
+                    constructor = c;
+                }
+                return c.newInstance();
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                throw new InvalidClassException(type.getName(), "No accessible no-arg constructor: " + e);
+            }
+        }
+
+        /**
+         * 父类字段在前，同一类中按字段名排序
+         */
+        private Field[] resolveFields() throws InvalidClassException {
+            List<Class<?>> hierarchy = new ArrayList<>();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                hierarchy.add(0, c);
+            }
+            List<Field> result = new ArrayList<>();
+            try {
+                for (Class<?> c : hierarchy) {
+                    List<Field> declared = new ArrayList<>();
+                    for (Field f : c.getDeclaredFields()) {
+                        int mod = f.getModifiers();
+                        if (!Modifier.isStatic(mod) && !Modifier.isTransient(mod)) {
+                            f.setAccessible(true);
+                            declared.add(f);
+                        }
+                    }
+                    declared.sort(Comparator.comparing(Field::getName));
+                    result.addAll(declared);
+                }
+            } catch (RuntimeException e) {
+                throw new InvalidClassException(type.getName(), e.toString());
+            }
+            return result.toArray(new Field[0]);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package org.kerw1n.javautil.serialize;
+
+import org.kerw1n.javautil.file.ByteBufferInputStream;
+import org.kerw1n.javautil.file.ByteBufferOutputStream;
+import org.kerw1n.javautil.file.ByteBufferPool;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * JDK 序列化
+ * <p>
+ * 格式与 {@link ObjectOutputStream} 一致，写入时使用池化的 buffer，不再因 ByteArrayOutputStream 扩容反复复制；
+ * 读写 ByteBuffer 时直接使用调用方的 buffer，不经过中间的 byte[]。
+ *
+ * @author kerw1n
+ */
+public class JdkSerializer implements Serializer {
+
+    private static final int INITIAL_CAPACITY = 512;
+
+    private static final JdkSerializer INSTANCE = new JdkSerializer();
+
+    public static JdkSerializer getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public byte[] serialize(Object obj) throws IOException {
+        BufferOutput out = new BufferOutput(ByteBufferPool.heap(), INITIAL_CAPACITY);
+        try {
+            try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(obj);
+            }
+            return out.toByteArray();
+        } finally {
+            out.release();
+        }
+    }
+
+    @Override
+    public int serialize(Object obj, ByteBuffer dest) throws IOException {
+        int start = dest.position();
+        try (ObjectOutputStream oos = new ObjectOutputStream(new ByteBufferOutputStream(dest))) {
+            oos.writeObject(obj);
+        } catch (BufferOverflowException e) {
+            dest.position(start);
+            throw e;
+        }
+        return dest.position() - start;
+    }
+
+    @Override
+    public ByteBuffer serialize(Object obj, ByteBufferPool pool) throws IOException {
+        BufferOutput out = new BufferOutput(pool, INITIAL_CAPACITY);
+        try {
+            try (ObjectOutputStream oos = new ObjectOutputStream(out)) {
+                oos.writeObject(obj);
+            }
+            return out.detach();
+        } finally {
+            out.release();
+        }
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return ois.readObject();
+        }
+    }
+
+    @Override
+    public Object deserialize(ByteBuffer src) throws IOException, ClassNotFoundException {
+        InputStream in = src.hasArray()
+                ? new ByteArrayInputStream(src.array(), src.arrayOffset() + src.position(), src.remaining())
+                : new ByteBufferInputStream(src);
+        try (ObjectInputStream ois = new ObjectInputStream(in)) {
+            return ois.readObject();
+        } finally {
+            src.position(src.limit());
+        }
+    }
+}
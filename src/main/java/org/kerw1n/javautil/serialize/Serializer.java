@@ -0,0 +1,85 @@
+package org.kerw1n.javautil.serialize;
+
+import org.kerw1n.javautil.file.ByteBufferPool;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * 对象序列化
+ * <p>
+ * 实现类需线程安全。
+ *
+ * @author kerw1n
+ * @see JdkSerializer
+ * @see CompactSerializer
+ */
+public interface Serializer {
+
+    /**
+     * 序列化
+     *
+     * @param obj 对象，可为 null
+     * @return 字节数组，长度即序列化后的大小
+     * @throws IOException 序列化异常
+     */
+    byte[] serialize(Object obj) throws IOException;
+
+    /**
+     * 反序列化
+     *
+     * @param bytes 字节数组
+     * @return 对象
+     * @throws IOException            反序列化异常
+     * @throws ClassNotFoundException 类不存在或未注册
+     */
+    Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException;
+
+    /**
+     * 序列化后写入调用方提供的 buffer，支持堆外 buffer
+     *
+     * @param obj  对象，可为 null
+     * @param dest 从 position 开始写入，写入后 position 移至数据之后；剩余空间不足时抛出 {@link BufferOverflowException}，此时 position 不变
+     * @return 写入的字节数
+     * @throws IOException 序列化异常
+     */
+    default int serialize(Object obj, ByteBuffer dest) throws IOException {
+        byte[] bytes = serialize(obj);
+        if (bytes.length > dest.remaining()) {
+            throw new BufferOverflowException();
+        }
+        dest.put(bytes);
+        return bytes.length;
+    }
+
+    /**
+     * 序列化后写入从池中取出的 buffer
+     *
+     * @param obj  对象，可为 null
+     * @param pool buffer 池，可使用 {@link ByteBufferPool#direct()} 得到堆外 buffer
+     * @return position 为 0、limit 为序列化后大小的 buffer，使用后由调用方归还到 pool
+     * @throws IOException 序列化异常
+     */
+    default ByteBuffer serialize(Object obj, ByteBufferPool pool) throws IOException {
+        byte[] bytes = serialize(obj);
+        ByteBuffer buf = pool.acquire(bytes.length);
+        buf.put(bytes);
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * 从 buffer 反序列化，支持堆外 buffer
+     *
+     * @param src position 至 limit 之间为一个完整的序列化结果，读取后 position 移至 limit
+     * @return 对象
+     * @throws IOException            反序列化异常
+     * @throws ClassNotFoundException 类不存在或未注册
+     */
+    default Object deserialize(ByteBuffer src) throws IOException, ClassNotFoundException {
+        byte[] bytes = new byte[src.remaining()];
+        src.get(bytes);
+        return deserialize(bytes);
+    }
+}